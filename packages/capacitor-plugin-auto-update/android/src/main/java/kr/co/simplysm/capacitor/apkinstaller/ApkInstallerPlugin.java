@@ -15,11 +15,23 @@ import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @CapacitorPlugin(name = "ApkInstaller")
 public class ApkInstallerPlugin extends Plugin {
 
     private static final String TAG = "ApkInstallerPlugin";
 
+    // Patching rebuilds and hashes the whole APK, so it runs here instead of on the shared plugin thread
+    private final ExecutorService patchExecutor = Executors.newSingleThreadExecutor();
+
     @PluginMethod
     public void install(PluginCall call) {
         String uriStr = call.getString("uri");
@@ -43,6 +55,61 @@ public class ApkInstallerPlugin extends Plugin {
         }
     }
 
+    /**
+     * Rebuilds an APK from the installed one (ApplicationInfo.sourceDir) and a BSDIFF40 patch.
+     * The output is streamed to outputPath and kept only if its SHA-256 matches. Runs on a background thread.
+     */
+    @PluginMethod
+    public void applyPatch(PluginCall call) {
+        String patchPath = call.getString("patchPath");
+        String outputPath = call.getString("outputPath");
+        String sha256 = call.getString("sha256");
+        if (patchPath == null || outputPath == null || sha256 == null) {
+            call.reject("patchPath, outputPath and sha256 are required");
+            return;
+        }
+
+        patchExecutor.execute(() -> applyPatch(call, new File(patchPath), new File(outputPath), sha256));
+    }
+
+    private void applyPatch(PluginCall call, File patchFile, File outputFile, String sha256) {
+        try {
+            File sourceFile = new File(getContext().getApplicationInfo().sourceDir);
+            File parent = outputFile.getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (OutputStream out = new DigestOutputStream(
+                new BufferedOutputStream(new FileOutputStream(outputFile), 64 * 1024), digest)) {
+                size = BsPatch.apply(sourceFile, patchFile, out);
+            }
+
+            String actual = toHex(digest.digest());
+            if (!actual.equalsIgnoreCase(sha256)) {
+                outputFile.delete();
+                call.reject("applyPatch failed: sha256 mismatch (expected " + sha256 + ", got " + actual + ")");
+                return;
+            }
+
+            JSObject ret = new JSObject();
+            ret.put("size", size);
+            call.resolve(ret);
+        } catch (Exception e) {
+            outputFile.delete();
+            Log.e(TAG, "applyPatch failed", e);
+            call.reject("applyPatch failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        patchExecutor.shutdown();
+        super.handleOnDestroy();
+    }
+
     @PluginMethod
     public void checkPermissions(PluginCall call) {
         // Check granted
@@ -115,4 +182,12 @@ public class ApkInstallerPlugin extends Plugin {
             call.reject("getVersionInfo failed: " + e.getMessage());
         }
     }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
 }
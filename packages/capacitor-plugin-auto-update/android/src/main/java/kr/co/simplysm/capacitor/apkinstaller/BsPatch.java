@@ -0,0 +1,150 @@
+package kr.co.simplysm.capacitor.apkinstaller;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Applies a BSDIFF40 patch (the format written by bsdiff 4.x) to an old file.
+ * The old file is read through a RandomAccessFile and the new file is written to the output stream
+ * as it is rebuilt, so memory use stays at a few buffers regardless of the APK size.
+ */
+class BsPatch {
+
+    private static final String MAGIC = "BSDIFF40";
+    private static final int HEADER_SIZE = 32;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private BsPatch() {
+    }
+
+    /**
+     * @return Size of the rebuilt file
+     */
+    static long apply(File oldFile, File patchFile, OutputStream out) throws IOException {
+        long ctrlLen;
+        long diffLen;
+        long newSize;
+        try (DataInputStream header = new DataInputStream(new FileInputStream(patchFile))) {
+            byte[] buf = new byte[HEADER_SIZE];
+            header.readFully(buf);
+            if (!MAGIC.equals(new String(buf, 0, 8, StandardCharsets.US_ASCII))) {
+                throw new IOException("Not a BSDIFF40 patch");
+            }
+            ctrlLen = readOffset(buf, 8);
+            diffLen = readOffset(buf, 16);
+            newSize = readOffset(buf, 24);
+        }
+        if (ctrlLen < 0 || diffLen < 0 || newSize < 0
+            || HEADER_SIZE + ctrlLen + diffLen > patchFile.length()) {
+            throw new IOException("Corrupt patch header");
+        }
+
+        try (
+            RandomAccessFile old = new RandomAccessFile(oldFile, "r");
+            DataInputStream ctrl = openBlock(patchFile, HEADER_SIZE);
+            DataInputStream diff = openBlock(patchFile, HEADER_SIZE + ctrlLen);
+            DataInputStream extra = openBlock(patchFile, HEADER_SIZE + ctrlLen + diffLen)
+        ) {
+            long oldSize = old.length();
+            byte[] diffBuf = new byte[BUFFER_SIZE];
+            byte[] oldBuf = new byte[BUFFER_SIZE];
+            byte[] ctrlBuf = new byte[24];
+
+            long newPos = 0;
+            long oldPos = 0;
+            while (newPos < newSize) {
+                ctrl.readFully(ctrlBuf);
+                long addLen = readOffset(ctrlBuf, 0);
+                long copyLen = readOffset(ctrlBuf, 8);
+                long seekLen = readOffset(ctrlBuf, 16);
+                if (addLen < 0 || copyLen < 0 || newPos + addLen + copyLen > newSize) {
+                    throw new IOException("Corrupt patch control block");
+                }
+
+                // Diff block: bytes are added to the old file at oldPos; bytes outside it count as 0
+                long remaining = addLen;
+                while (remaining > 0) {
+                    int n = (int) Math.min(remaining, BUFFER_SIZE);
+                    diff.readFully(diffBuf, 0, n);
+                    readOld(old, oldSize, oldPos, oldBuf, n);
+                    for (int i = 0; i < n; i++) {
+                        diffBuf[i] += oldBuf[i];
+                    }
+                    out.write(diffBuf, 0, n);
+                    oldPos += n;
+                    remaining -= n;
+                }
+                newPos += addLen;
+
+                // Extra block: copied as is
+                remaining = copyLen;
+                while (remaining > 0) {
+                    int n = (int) Math.min(remaining, BUFFER_SIZE);
+                    extra.readFully(diffBuf, 0, n);
+                    out.write(diffBuf, 0, n);
+                    remaining -= n;
+                }
+                newPos += copyLen;
+                oldPos += seekLen;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated patch", e);
+        }
+
+        return newSize;
+    }
+
+    private static DataInputStream openBlock(File patchFile, long offset) throws IOException {
+        FileInputStream in = new FileInputStream(patchFile);
+        try {
+            in.getChannel().position(offset);
+            InputStream bzip = new BZip2CompressorInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+            return new DataInputStream(bzip);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Fills buf[0..n) with the old file at pos, zero-filling whatever lies outside it.
+     */
+    private static void readOld(RandomAccessFile old, long oldSize, long pos, byte[] buf, int n) throws IOException {
+        int filled = 0;
+        if (pos < 0) {
+            int skip = (int) Math.min(n, -pos);
+            Arrays.fill(buf, 0, skip, (byte) 0);
+            filled = skip;
+        }
+        long start = pos + filled;
+        if (filled < n && start < oldSize) {
+            int len = (int) Math.min(n - filled, oldSize - start);
+            old.seek(start);
+            old.readFully(buf, filled, len);
+            filled += len;
+        }
+        Arrays.fill(buf, filled, n, (byte) 0);
+    }
+
+    /**
+     * bsdiff stores 64-bit offsets as little-endian magnitude with the sign in the top bit.
+     */
+    private static long readOffset(byte[] buf, int off) {
+        long y = buf[off + 7] & 0x7F;
+        for (int i = 6; i >= 0; i--) {
+            y = (y << 8) | (buf[off + i] & 0xFF);
+        }
+        return (buf[off + 7] & 0x80) != 0 ? -y : y;
+    }
+}
@@ -0,0 +1,200 @@
+package kr.co.simplysm.capacitor.apkinstaller;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BsPatchTest {
+
+    private File dir;
+    private File oldFile;
+    private byte[] old;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("bspatch", "");
+        dir.delete();
+        dir.mkdirs();
+
+        // Larger than BsPatch's buffer, so diff and extra runs span several reads
+        old = new byte[200 * 1024];
+        new Random(1).nextBytes(old);
+        oldFile = write("old.bin", old);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void applyRebuildsTargetFromPatch() throws Exception {
+        byte[] inserted = new byte[100 * 1024];
+        new Random(2).nextBytes(inserted);
+
+        // Edited copy of old[0..150K), a new 100K block, old[10K..20K) again (backward seek),
+        // and a run that extends 8 bytes past the end of the old file (diffed against zeros)
+        byte[] head = Arrays.copyOfRange(old, 0, 150 * 1024);
+        for (int i = 0; i < head.length; i += 4096) {
+            head[i] ^= 0x5A;
+        }
+        byte[] repeated = Arrays.copyOfRange(old, 10 * 1024, 20 * 1024);
+        byte[] tail = "tail-beyond-old!".getBytes(StandardCharsets.US_ASCII);
+
+        PatchBuilder patch = new PatchBuilder(old);
+        patch.control(head, 0, inserted, 10 * 1024 - head.length);
+        patch.control(repeated, 10 * 1024, new byte[0], old.length - 8 - 20 * 1024);
+        patch.control(tail, old.length - 8, new byte[0], 0);
+        File patchFile = write("update.patch", patch.build());
+
+        byte[] expected = concat(head, inserted, repeated, tail);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(expected.length, BsPatch.apply(oldFile, patchFile, out));
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    public void applyRejectsBadMagic() throws Exception {
+        byte[] bytes = new PatchBuilder(old).build();
+        bytes[0] = 'X';
+        File patchFile = write("bad-magic.patch", bytes);
+
+        IOException e = assertThrows(IOException.class,
+            () -> BsPatch.apply(oldFile, patchFile, new ByteArrayOutputStream()));
+        assertEquals("Not a BSDIFF40 patch", e.getMessage());
+    }
+
+    @Test
+    public void applyRejectsBlockLengthsBeyondFile() throws Exception {
+        byte[] bytes = new PatchBuilder(old).build();
+        bytes[8 + 3] = 0x7F; // control block length far past the end of the patch
+        File patchFile = write("bad-length.patch", bytes);
+
+        IOException e = assertThrows(IOException.class,
+            () -> BsPatch.apply(oldFile, patchFile, new ByteArrayOutputStream()));
+        assertEquals("Corrupt patch header", e.getMessage());
+    }
+
+    @Test
+    public void applyRejectsTruncatedHeader() throws Exception {
+        File patchFile = write("short.patch", "BSDIFF40".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IOException.class, () -> BsPatch.apply(oldFile, patchFile, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void applyRejectsControlBlockOverrunningNewSize() throws Exception {
+        PatchBuilder patch = new PatchBuilder(old);
+        patch.control(Arrays.copyOfRange(old, 0, 16), 0, new byte[0], 0);
+        patch.newSize = 8;
+        File patchFile = write("overrun.patch", patch.build());
+
+        IOException e = assertThrows(IOException.class,
+            () -> BsPatch.apply(oldFile, patchFile, new ByteArrayOutputStream()));
+        assertEquals("Corrupt patch control block", e.getMessage());
+    }
+
+    private File write(String name, byte[] data) throws IOException {
+        File file = new File(dir, name);
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(data);
+        }
+        return file;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a BSDIFF40 patch from explicit control entries, as bsdiff 4.x would lay it out.
+     */
+    private static class PatchBuilder {
+        private final byte[] old;
+        private final ByteArrayOutputStream ctrl = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream diff = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream extra = new ByteArrayOutputStream();
+        long newSize;
+
+        PatchBuilder(byte[] old) {
+            this.old = old;
+        }
+
+        /**
+         * @param target Bytes rebuilt from the old file at oldPos (stored as differences)
+         * @param inserted Bytes copied as is after them
+         * @param seek Old file position change after the target run
+         */
+        void control(byte[] target, int oldPos, byte[] inserted, long seek) {
+            for (int i = 0; i < target.length; i++) {
+                int pos = oldPos + i;
+                byte base = pos >= 0 && pos < old.length ? old[pos] : 0;
+                diff.write(target[i] - base);
+            }
+            extra.write(inserted, 0, inserted.length);
+            writeOffset(ctrl, target.length);
+            writeOffset(ctrl, inserted.length);
+            writeOffset(ctrl, seek);
+            newSize += target.length + inserted.length;
+        }
+
+        byte[] build() throws IOException {
+            byte[] ctrlBlock = bzip2(ctrl.toByteArray());
+            byte[] diffBlock = bzip2(diff.toByteArray());
+            byte[] extraBlock = bzip2(extra.toByteArray());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write("BSDIFF40".getBytes(StandardCharsets.US_ASCII));
+            writeOffset(out, ctrlBlock.length);
+            writeOffset(out, diffBlock.length);
+            writeOffset(out, newSize);
+            out.write(ctrlBlock);
+            out.write(diffBlock);
+            out.write(extraBlock);
+            return out.toByteArray();
+        }
+
+        private static byte[] bzip2(byte[] data) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (BZip2CompressorOutputStream bzip = new BZip2CompressorOutputStream(out)) {
+                bzip.write(data);
+            }
+            return out.toByteArray();
+        }
+
+        private static void writeOffset(ByteArrayOutputStream out, long value) {
+            long magnitude = Math.abs(value);
+            for (int i = 0; i < 8; i++) {
+                int b = (int) (magnitude >>> (8 * i)) & 0xFF;
+                if (i == 7 && value < 0) {
+                    b |= 0x80;
+                }
+                out.write(b);
+            }
+        }
+    }
+}
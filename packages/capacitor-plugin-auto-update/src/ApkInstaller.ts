@@ -1,5 +1,5 @@
 import { registerPlugin } from "@capacitor/core";
-import type { ApkInstallerPlugin, VersionInfo } from "./ApkInstallerPlugin";
+import type { ApkInstallerPlugin, ApkPatchOptions, VersionInfo } from "./ApkInstallerPlugin";
 
 const apkInstallerPlugin = registerPlugin<ApkInstallerPlugin>("ApkInstaller", {
   web: async () => {
@@ -36,6 +36,15 @@ export abstract class ApkInstaller {
     await apkInstallerPlugin.install({ uri: apkUri });
   }
 
+  /**
+   * Rebuild an APK from the installed APK and a BSDIFF40 patch
+   * - The result is streamed to outputPath and deleted again if its SHA-256 does not match
+   * @returns Size of the rebuilt APK in bytes
+   */
+  static async applyPatch(options: ApkPatchOptions): Promise<{ size: number }> {
+    return apkInstallerPlugin.applyPatch(options);
+  }
+
   /**
    * Get app version info
    */
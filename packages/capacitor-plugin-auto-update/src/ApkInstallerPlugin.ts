@@ -3,8 +3,18 @@ export interface VersionInfo {
   versionCode: string;
 }
 
+export interface ApkPatchOptions {
+  /** Path of the downloaded BSDIFF40 patch */
+  patchPath: string;
+  /** Path to write the rebuilt APK to */
+  outputPath: string;
+  /** Expected SHA-256 (hex) of the rebuilt APK */
+  sha256: string;
+}
+
 export interface ApkInstallerPlugin {
   install(options: { uri: string }): Promise<void>;
+  applyPatch(options: ApkPatchOptions): Promise<{ size: number }>;
   checkPermissions(): Promise<{ granted: boolean; manifest: boolean }>;
   requestPermissions(): Promise<void>;
   getVersionInfo(): Promise<VersionInfo>;
@@ -103,6 +103,19 @@ export abstract class AutoUpdate {
     await ApkInstaller.install(apkFileUri);
   }
 
+  private static async _download(
+    log: (messageHtml: string) => void,
+    url: string,
+  ): Promise<Uint8Array> {
+    log(`Downloading latest version file...`);
+    return fetchUrlBytes(url, {
+      onProgress: (progress) => {
+        const progressText = ((progress.receivedLength * 100) / progress.contentLength).toFixed(2);
+        log(`Downloading latest version file...(${progressText}%)`);
+      },
+    });
+  }
+
   private static _getErrorMessage(err: unknown) {
     return html`
       Error occurred during update:
@@ -123,7 +136,13 @@ export abstract class AutoUpdate {
       const autoUpdateServiceClient =
         opt.serviceClient.getService<AutoUpdateService>("AutoUpdateService");
 
-      const serverVersionInfo = await autoUpdateServiceClient.getLastVersion("android");
+      // Get current app version (sent so the server can offer a patch from it)
+      const currentVersionInfo = await ApkInstaller.getVersionInfo();
+
+      const serverVersionInfo = await autoUpdateServiceClient.getLastVersion(
+        "android",
+        currentVersionInfo.versionName,
+      );
       if (!serverVersionInfo) {
         // eslint-disable-next-line no-console
         console.log("Failed to get latest version information from server.");
@@ -136,9 +155,6 @@ export abstract class AutoUpdate {
         opt.serviceClient.hostUrl + serverVersionInfo.downloadPath,
       );
 
-      // Get current app version
-      const currentVersionInfo = await ApkInstaller.getVersionInfo();
-
       // Return if already latest or server version is lower
       if (
         semver.valid(currentVersionInfo.versionName) === null ||
@@ -152,21 +168,45 @@ export abstract class AutoUpdate {
         return;
       }
 
-      opt.log(`Downloading latest version file...`);
-      const buffer = await fetchUrlBytes(
-        opt.serviceClient.hostUrl + serverVersionInfo.downloadPath,
-        {
-          onProgress: (progress) => {
-            const progressText = ((progress.receivedLength * 100) / progress.contentLength).toFixed(
-              2,
-            );
-            opt.log(`Downloading latest version file...(${progressText}%)`);
-          },
-        },
-      );
       const storagePath = await FileSystem.getStoragePath("appCache");
       const apkFilePath = path.join(storagePath, `latest.apk`);
-      await FileSystem.writeFile(apkFilePath, buffer);
+
+      let patched = false;
+      if (serverVersionInfo.patch != null) {
+        const patchFilePath = path.join(storagePath, `latest.patch`);
+        try {
+          const patchBuffer = await this._download(
+            opt.log,
+            opt.serviceClient.hostUrl + serverVersionInfo.patch.downloadPath,
+          );
+          await FileSystem.writeFile(patchFilePath, patchBuffer);
+
+          opt.log(`Applying update patch...`);
+          await ApkInstaller.applyPatch({
+            patchPath: patchFilePath,
+            outputPath: apkFilePath,
+            sha256: serverVersionInfo.patch.sha256,
+          });
+          patched = true;
+        } catch (err) {
+          // Fall back to the full APK
+          // eslint-disable-next-line no-console
+          console.error("[AutoUpdate] patch update failed:", err);
+        } finally {
+          // The patch is only needed once, whether it applied or not
+          if (await FileSystem.exists(patchFilePath)) {
+            await FileSystem.remove(patchFilePath);
+          }
+        }
+      }
+
+      if (!patched) {
+        const buffer = await this._download(
+          opt.log,
+          opt.serviceClient.hostUrl + serverVersionInfo.downloadPath,
+        );
+        await FileSystem.writeFile(apkFilePath, buffer);
+      }
 
       await this._installApk(opt.log, apkFilePath);
       await this._freezeApp();
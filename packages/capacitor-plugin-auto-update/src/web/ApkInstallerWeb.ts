@@ -1,5 +1,5 @@
 import { WebPlugin } from "@capacitor/core";
-import type { ApkInstallerPlugin, VersionInfo } from "../ApkInstallerPlugin";
+import type { ApkInstallerPlugin, ApkPatchOptions, VersionInfo } from "../ApkInstallerPlugin";
 
 export class ApkInstallerWeb extends WebPlugin implements ApkInstallerPlugin {
   install(_options: { uri: string }): Promise<void> {
@@ -7,6 +7,12 @@ export class ApkInstallerWeb extends WebPlugin implements ApkInstallerPlugin {
     return Promise.resolve();
   }
 
+  applyPatch(_options: ApkPatchOptions): Promise<{ size: number }> {
+    return Promise.reject(
+      new Error("[ApkInstaller] APK patching is not supported in web environment."),
+    );
+  }
+
   checkPermissions(): Promise<{ granted: boolean; manifest: boolean }> {
     // Skip permission check on web
     return Promise.resolve({ granted: true, manifest: true });
@@ -1,12 +1,17 @@
 package kr.co.simplysm.capacitor.broadcast;
 
 import android.content.BroadcastReceiver;
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Parcelable;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.getcapacitor.JSArray;
@@ -20,16 +25,66 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @CapacitorPlugin(name = "Broadcast")
 public class BroadcastPlugin extends Plugin {
 
     private static final String TAG = "BroadcastPlugin";
-    private final Map<String, BroadcastReceiver> receivers = new HashMap<>();
+    private static final int DEFAULT_BATCH_MAX_SIZE = 50;
+    private static final long DEFAULT_BATCH_MAX_LATENCY = 100; // ms
+    private static final int DEFAULT_BUFFER_SIZE = 100;
+
+    // One registered receiver per distinct action set, shared by every subscription to that set.
+    // Both maps are guarded by registryLock (plugin methods and handleOnDestroy run on different threads).
+    private final Object registryLock = new Object();
+    private final Map<String, SharedReceiver> sharedReceivers = new HashMap<>();
+    private final Map<String, Subscription> subscriptions = new HashMap<>();
+
+    // Receivers run here so intent conversion and callback dispatch stay off the UI thread
+    private HandlerThread receiverThread;
+    private Handler handler;
+
+    // Loaded instance, for in-process delivery from native code (see sendLocal)
+    private static volatile BroadcastPlugin instance;
+
+    // While paused the WebView may not process callbacks, so subscriptions buffer instead of resolving
+    private volatile boolean paused;
+
+    @Override
+    public void load() {
+        super.load();
+        receiverThread = new HandlerThread("BroadcastPlugin", Process.THREAD_PRIORITY_BACKGROUND);
+        receiverThread.start();
+        handler = new Handler(receiverThread.getLooper());
+        instance = this;
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        paused = true;
+    }
+
+    @Override
+    protected void handleOnResume() {
+        super.handleOnResume();
+        paused = false;
+        synchronized (registryLock) {
+            for (Subscription subscription : subscriptions.values()) {
+                handler.post(subscription::replay);
+            }
+        }
+    }
 
     @Override
     protected void handleOnNewIntent(Intent intent) {
@@ -51,28 +106,37 @@ public class BroadcastPlugin extends Plugin {
 
             String receiverId = UUID.randomUUID().toString();
 
-            IntentFilter intentFilter = new IntentFilter();
+            TreeSet<String> actions = new TreeSet<>();
             for (int i = 0; i < filters.length(); i++) {
-                intentFilter.addAction(filters.getString(i));
+                actions.add(filters.getString(i));
             }
 
-            BroadcastReceiver receiver = new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    JSObject result = intentToJson(intent);
-                    result.put("id", receiverId);
-                    call.resolve(result);
+            Subscription subscription = new Subscription(receiverId, call, SubscriptionOptions.from(call));
+
+            synchronized (registryLock) {
+                String receiverKey = String.join("\n", actions);
+                SharedReceiver receiver = sharedReceivers.get(receiverKey);
+                if (receiver == null) {
+                    receiver = new SharedReceiver(receiverKey, actions);
+
+                    IntentFilter intentFilter = new IntentFilter();
+                    for (String action : actions) {
+                        intentFilter.addAction(action);
+                    }
+
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+                        getContext().registerReceiver(receiver, intentFilter, null, handler, Context.RECEIVER_EXPORTED);
+                    } else {
+                        getContext().registerReceiver(receiver, intentFilter, null, handler);
+                    }
+                    sharedReceivers.put(receiverKey, receiver);
                 }
-            };
 
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                getContext().registerReceiver(receiver, intentFilter, Context.RECEIVER_EXPORTED);
-            } else {
-                getContext().registerReceiver(receiver, intentFilter);
+                receiver.listeners.add(subscription);
+                subscription.receiver = receiver;
+                subscriptions.put(receiverId, subscription);
             }
 
-            receivers.put(receiverId, receiver);
-
             JSObject ret = new JSObject();
             ret.put("id", receiverId);
             call.resolve(ret);
@@ -91,9 +155,18 @@ public class BroadcastPlugin extends Plugin {
                 return;
             }
 
-            BroadcastReceiver receiver = receivers.remove(id);
-            if (receiver != null) {
-                getContext().unregisterReceiver(receiver);
+            synchronized (registryLock) {
+                Subscription subscription = subscriptions.remove(id);
+                if (subscription != null) {
+                    subscription.cancel();
+
+                    SharedReceiver receiver = subscription.receiver;
+                    receiver.listeners.remove(subscription);
+                    if (receiver.listeners.isEmpty()) {
+                        sharedReceivers.remove(receiver.key);
+                        getContext().unregisterReceiver(receiver);
+                    }
+                }
             }
 
             call.resolve();
@@ -106,13 +179,7 @@ public class BroadcastPlugin extends Plugin {
     @PluginMethod
     public void unsubscribeAll(PluginCall call) {
         try {
-            for (BroadcastReceiver receiver : receivers.values()) {
-                try {
-                    getContext().unregisterReceiver(receiver);
-                } catch (Exception ignored) {
-                }
-            }
-            receivers.clear();
+            clearSubscriptions();
             call.resolve();
         } catch (Exception e) {
             Log.e(TAG, "unsubscribeAll failed", e);
@@ -129,14 +196,12 @@ public class BroadcastPlugin extends Plugin {
                 return;
             }
 
-            Intent intent = new Intent(action);
-
-            JSObject extras = call.getObject("extras");
-            if (extras != null) {
-                populateExtras(intent, extras);
+            Intent intent = buildIntent(call.getData());
+            if (call.getBoolean("local", false)) {
+                deliverLocally(intent);
+            } else {
+                getContext().sendBroadcast(intent);
             }
-
-            getContext().sendBroadcast(intent);
             call.resolve();
         } catch (Exception e) {
             Log.e(TAG, "send failed", e);
@@ -144,6 +209,83 @@ public class BroadcastPlugin extends Plugin {
         }
     }
 
+    @PluginMethod
+    public void sendBatch(PluginCall call) {
+        try {
+            JSArray items = call.getArray("intents");
+            if (items == null) {
+                call.reject("intents is required");
+                return;
+            }
+
+            // Convert everything first so an invalid entry sends nothing
+            List<Intent> intents = new ArrayList<>(items.length());
+            List<Boolean> locals = new ArrayList<>(items.length());
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                intents.add(buildIntent(item));
+                locals.add(item.optBoolean("local", false));
+            }
+
+            for (int i = 0; i < intents.size(); i++) {
+                if (locals.get(i)) {
+                    deliverLocally(intents.get(i));
+                } else {
+                    getContext().sendBroadcast(intents.get(i));
+                }
+            }
+            call.resolve();
+        } catch (Exception e) {
+            Log.e(TAG, "sendBatch failed", e);
+            call.reject("sendBatch failed: " + e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void sendOrdered(PluginCall call) {
+        try {
+            String action = call.getString("action");
+            if (action == null) {
+                call.reject("action is required");
+                return;
+            }
+
+            if (call.getBoolean("local", false)) {
+                call.reject("local is not supported for ordered broadcasts");
+                return;
+            }
+
+            Intent intent = buildIntent(call.getData());
+
+            BroadcastReceiver resultReceiver = new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    JSObject ret = new JSObject();
+                    ret.put("resultCode", getResultCode());
+                    ret.put("resultData", getResultData());
+                    Bundle resultExtras = getResultExtras(false);
+                    if (resultExtras != null) {
+                        ret.put("resultExtras", bundleToJson(resultExtras, ExtrasProjection.ALL, 1, Integer.MAX_VALUE));
+                    }
+                    call.resolve(ret);
+                }
+            };
+
+            getContext().sendOrderedBroadcast(
+                intent,
+                null,
+                resultReceiver,
+                handler,
+                call.getInt("initialCode", 0),
+                call.getString("initialData"),
+                null
+            );
+        } catch (Exception e) {
+            Log.e(TAG, "sendOrdered failed", e);
+            call.reject("sendOrdered failed: " + e.getMessage());
+        }
+    }
+
     @PluginMethod
     public void getLaunchIntent(PluginCall call) {
         try {
@@ -155,7 +297,71 @@ public class BroadcastPlugin extends Plugin {
         }
     }
 
-    private void populateExtras(Intent intent, JSObject extras) throws JSONException {
+    /**
+     * Hand an intent straight to the subscriptions of this process whose filters contain its action,
+     * skipping the system server and Parcel marshalling. Package and component targeting are ignored.
+     * @return Whether any subscription matched
+     */
+    private boolean deliverLocally(Intent intent) {
+        List<SharedReceiver> targets = new ArrayList<>();
+        synchronized (registryLock) {
+            for (SharedReceiver receiver : sharedReceivers.values()) {
+                if (receiver.actions.contains(intent.getAction())) {
+                    targets.add(receiver);
+                }
+            }
+        }
+
+        for (SharedReceiver receiver : targets) {
+            handler.post(() -> receiver.onReceive(getContext(), intent));
+        }
+        return !targets.isEmpty();
+    }
+
+    /**
+     * Deliver an intent to this app's broadcast subscriptions in-process, as with send({ local: true }).
+     * For native modules that exchange events with the WebView.
+     * @return Whether a loaded plugin had a matching subscription
+     */
+    public static boolean sendLocal(Intent intent) {
+        BroadcastPlugin plugin = instance;
+        return plugin != null && plugin.deliverLocally(intent);
+    }
+
+    /**
+     * @param options { action, extras?, package?, component? } where component is "package/class"
+     */
+    private Intent buildIntent(JSONObject options) throws JSONException {
+        String action = options.optString("action", null);
+        if (action == null) {
+            throw new JSONException("action is required");
+        }
+
+        Intent intent = new Intent(action);
+
+        JSONObject extras = options.optJSONObject("extras");
+        if (extras != null) {
+            populateExtras(intent, extras);
+        }
+
+        String packageName = options.optString("package", null);
+        if (packageName != null) {
+            intent.setPackage(packageName);
+        }
+
+        String component = options.optString("component", null);
+        if (component != null) {
+            ComponentName componentName = ComponentName.unflattenFromString(component);
+            if (componentName == null) {
+                throw new JSONException("Invalid component: " + component);
+            }
+            intent.setComponent(componentName);
+        }
+
+        return intent;
+    }
+
+    private void populateExtras(Intent intent, JSONObject extras) throws JSONException {
         Iterator<String> keys = extras.keys();
         while (keys.hasNext()) {
             String key = keys.next();
@@ -208,6 +414,10 @@ public class BroadcastPlugin extends Plugin {
     }
 
     private JSObject intentToJson(Intent intent) {
+        return intentToJson(intent, ExtrasProjection.ALL, Integer.MAX_VALUE);
+    }
+
+    private JSObject intentToJson(Intent intent, ExtrasProjection projection, int maxDepth) {
         JSObject json = new JSObject();
 
         if (intent == null) {
@@ -219,7 +429,7 @@ public class BroadcastPlugin extends Plugin {
 
             Bundle extras = intent.getExtras();
             if (extras != null) {
-                json.put("extras", bundleToJson(extras));
+                json.put("extras", bundleToJson(extras, projection, 1, maxDepth));
             }
         } catch (Exception e) {
             Log.e(TAG, "intentToJson failed", e);
@@ -228,15 +438,24 @@ public class BroadcastPlugin extends Plugin {
         return json;
     }
 
-    private JSObject bundleToJson(Bundle bundle) {
+    /**
+     * @param depth Nesting level of this bundle (intent extras are 1); nested bundles deeper than maxDepth are skipped
+     */
+    private JSObject bundleToJson(Bundle bundle, ExtrasProjection projection, int depth, int maxDepth) {
         JSObject json = new JSObject();
 
         if (bundle == null) {
             return json;
         }
 
-        for (String key : bundle.keySet()) {
+        // With a projection, only the requested keys are read (and lazily unparcelled on Android 13+)
+        Iterable<String> keys = projection.keys == null ? bundle.keySet() : projection.keys.keySet();
+        for (String key : keys) {
             try {
+                if (projection.keys != null && !bundle.containsKey(key)) {
+                    continue;
+                }
+
                 Object value = bundle.get(key);
 
                 if (value == null) {
@@ -254,7 +473,9 @@ public class BroadcastPlugin extends Plugin {
                 } else if (value instanceof Boolean) {
                     json.put(key, value);
                 } else if (value instanceof Bundle) {
-                    json.put(key, bundleToJson((Bundle) value));
+                    if (depth < maxDepth) {
+                        json.put(key, bundleToJson((Bundle) value, projection.child(key), depth + 1, maxDepth));
+                    }
                 } else if (value instanceof String[]) {
                     JSArray arr = new JSArray();
                     for (String s : (String[]) value) {
@@ -288,13 +509,343 @@ public class BroadcastPlugin extends Plugin {
 
     @Override
     protected void handleOnDestroy() {
-        for (BroadcastReceiver receiver : receivers.values()) {
-            try {
-                getContext().unregisterReceiver(receiver);
-            } catch (Exception ignored) {
-            }
+        if (instance == this) {
+            instance = null;
+        }
+        clearSubscriptions();
+        if (receiverThread != null) {
+            receiverThread.quitSafely();
+            receiverThread = null;
         }
-        receivers.clear();
         super.handleOnDestroy();
     }
+
+    private void clearSubscriptions() {
+        synchronized (registryLock) {
+            for (SharedReceiver receiver : sharedReceivers.values()) {
+                try {
+                    getContext().unregisterReceiver(receiver);
+                } catch (Exception ignored) {
+                }
+            }
+            sharedReceivers.clear();
+
+            for (Subscription subscription : subscriptions.values()) {
+                subscription.cancel();
+            }
+            subscriptions.clear();
+        }
+    }
+
+    private static JSObject copyOf(JSObject source) {
+        JSObject copy = new JSObject();
+        Iterator<String> keys = source.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            copy.put(key, source.opt(key));
+        }
+        return copy;
+    }
+
+    /**
+     * Per-subscription delivery options parsed from the subscribe call.
+     */
+    private static class SubscriptionOptions {
+        int maxBatchSize; // 0: no batching
+        long maxBatchLatency;
+        ExtrasProjection projection = ExtrasProjection.ALL;
+        int maxDepth = Integer.MAX_VALUE;
+        String conversionKey;
+        int bufferSize = DEFAULT_BUFFER_SIZE; // 0: deliver while paused
+        IntentRules rules; // null: no filtering
+
+        static SubscriptionOptions from(PluginCall call) throws JSONException {
+            SubscriptionOptions options = new SubscriptionOptions();
+
+            JSObject batch = call.getObject("batch");
+            if (batch != null) {
+                options.maxBatchSize = Math.max(1, batch.getInteger("maxSize", DEFAULT_BATCH_MAX_SIZE));
+                options.maxBatchLatency = Math.max(0, batch.getInteger("maxLatency", (int) DEFAULT_BATCH_MAX_LATENCY));
+            }
+
+            JSArray extrasPaths = call.getArray("extras");
+            if (extrasPaths != null) {
+                options.projection = ExtrasProjection.parse(extrasPaths);
+            }
+            options.maxDepth = Math.max(1, call.getInt("maxDepth", Integer.MAX_VALUE));
+            options.conversionKey = extrasPaths + "#" + options.maxDepth;
+
+            options.bufferSize = Math.max(0, call.getInt("bufferSize", DEFAULT_BUFFER_SIZE));
+            options.rules = IntentRules.from(call);
+            return options;
+        }
+    }
+
+    /**
+     * Extras keys to convert, as a tree of key paths. A null key map selects every key at that level.
+     */
+    private static class ExtrasProjection {
+        static final ExtrasProjection ALL = new ExtrasProjection(null);
+
+        private final Map<String, ExtrasProjection> keys;
+
+        private ExtrasProjection(Map<String, ExtrasProjection> keys) {
+            this.keys = keys;
+        }
+
+        ExtrasProjection child(String key) {
+            if (keys == null) {
+                return ALL;
+            }
+            ExtrasProjection child = keys.get(key);
+            return child != null ? child : ALL;
+        }
+
+        /**
+         * @param paths Each entry is a top-level key, or an array of keys into nested bundles
+         */
+        static ExtrasProjection parse(JSArray paths) throws JSONException {
+            ExtrasProjection root = new ExtrasProjection(new HashMap<>());
+            for (int i = 0; i < paths.length(); i++) {
+                Object path = paths.get(i);
+                List<String> segments = new ArrayList<>();
+                if (path instanceof JSONArray) {
+                    JSONArray arr = (JSONArray) path;
+                    for (int j = 0; j < arr.length(); j++) {
+                        segments.add(arr.getString(j));
+                    }
+                } else {
+                    segments.add(String.valueOf(path));
+                }
+
+                ExtrasProjection node = root;
+                for (int j = 0; j < segments.size(); j++) {
+                    String segment = segments.get(j);
+                    if (j == segments.size() - 1) {
+                        // Selecting a whole key overrides narrower paths below it
+                        node.keys.put(segment, ALL);
+                        break;
+                    }
+
+                    ExtrasProjection next = node.keys.get(segment);
+                    if (next == ALL) {
+                        break;
+                    }
+                    if (next == null) {
+                        next = new ExtrasProjection(new HashMap<>());
+                        node.keys.put(segment, next);
+                    }
+                    node = next;
+                }
+            }
+            return root;
+        }
+    }
+
+    /**
+     * Registered receiver for one action set.
+     * Each intent is converted once and fanned out to every listening subscription.
+     */
+    private class SharedReceiver extends BroadcastReceiver {
+        private final String key;
+        private final Set<String> actions;
+        private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+
+        SharedReceiver(String key, Set<String> actions) {
+            this.key = key;
+            this.actions = actions;
+        }
+
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (listeners.isEmpty()) {
+                return;
+            }
+
+            long now = SystemClock.elapsedRealtime();
+
+            // Subscriptions with the same projection share one conversion
+            Map<String, JSObject> converted = new HashMap<>();
+            for (Subscription subscription : listeners) {
+                // Rules run on the raw intent, so filtered-out intents are never converted
+                if (!subscription.accept(intent, now)) {
+                    continue;
+                }
+
+                SubscriptionOptions options = subscription.options;
+                JSObject result = converted.get(options.conversionKey);
+                if (result == null) {
+                    result = intentToJson(intent, options.projection, options.maxDepth);
+                    converted.put(options.conversionKey, result);
+                }
+                subscription.deliver(result);
+            }
+        }
+    }
+
+    /**
+     * Delivers converted intents to the JS callback, either one by one or in batches.
+     * A batch is flushed when it reaches maxBatchSize or when its oldest result is maxBatchLatency ms old.
+     * While paused, results go to a ring buffer of bufferSize (oldest evicted first) and are replayed on resume.
+     * Buffer state is only touched from the receiver thread; cancel() may be called from any thread.
+     */
+    private class Subscription {
+        private final String id;
+        private final PluginCall call;
+        private final SubscriptionOptions options;
+        private SharedReceiver receiver;
+        private final List<JSObject> pending = new ArrayList<>();
+        private final Runnable flushRunnable = this::flush;
+        private volatile boolean cancelled;
+
+        // Latest intent waiting for the debounce interval to pass
+        private Intent debouncedIntent;
+        private final Runnable debounceRunnable = this::deliverDebounced;
+
+        // Results received while paused, and how many were evicted since the last delivery
+        private final ArrayDeque<JSObject> buffered = new ArrayDeque<>();
+        private int dropped;
+
+        Subscription(String id, PluginCall call, SubscriptionOptions options) {
+            this.id = id;
+            this.call = call;
+            this.options = options;
+        }
+
+        /**
+         * Apply the subscription rules to a raw intent.
+         * @return Whether to convert and deliver it now; debounced intents are delivered later
+         */
+        boolean accept(Intent intent, long now) {
+            IntentRules rules = options.rules;
+            if (cancelled) {
+                return false;
+            }
+            if (rules == null) {
+                return true;
+            }
+            if (!rules.accept(intent, now)) {
+                return false;
+            }
+
+            if (rules.getDebounce() > 0) {
+                debouncedIntent = intent;
+                handler.removeCallbacks(debounceRunnable);
+                handler.postDelayed(debounceRunnable, rules.getDebounce());
+                return false;
+            }
+            return true;
+        }
+
+        private void deliverDebounced() {
+            Intent intent = debouncedIntent;
+            debouncedIntent = null;
+            if (intent != null) {
+                deliver(intentToJson(intent, options.projection, options.maxDepth));
+            }
+        }
+
+        void deliver(JSObject result) {
+            if (cancelled) {
+                return;
+            }
+
+            // Keep order: anything arriving before the replay has drained the buffer queues behind it
+            if (paused || !buffered.isEmpty()) {
+                buffer(result);
+                return;
+            }
+
+            dispatch(result);
+        }
+
+        void replay() {
+            if (cancelled || paused) {
+                return;
+            }
+
+            while (!buffered.isEmpty()) {
+                dispatch(buffered.pollFirst());
+            }
+        }
+
+        private void buffer(JSObject result) {
+            if (options.bufferSize <= 0) {
+                dispatch(result);
+                return;
+            }
+
+            buffered.addLast(result);
+            if (buffered.size() > options.bufferSize) {
+                buffered.pollFirst();
+                dropped++;
+            }
+        }
+
+        private void dispatch(JSObject result) {
+            if (options.maxBatchSize <= 0) {
+                // The result is shared with other subscriptions, so tag a shallow copy
+                JSObject ret = copyOf(result);
+                resolve(ret);
+                return;
+            }
+
+            pending.add(result);
+            if (pending.size() >= options.maxBatchSize) {
+                handler.removeCallbacks(flushRunnable);
+                flush();
+            } else if (pending.size() == 1) {
+                handler.postDelayed(flushRunnable, options.maxBatchLatency);
+            }
+        }
+
+        private void flush() {
+            if (cancelled || pending.isEmpty()) {
+                return;
+            }
+
+            if (paused && options.bufferSize > 0) {
+                // Pending results are older than anything buffered, so put them back in front
+                for (int i = pending.size() - 1; i >= 0; i--) {
+                    buffered.addFirst(pending.get(i));
+                }
+                pending.clear();
+                while (buffered.size() > options.bufferSize) {
+                    buffered.pollFirst();
+                    dropped++;
+                }
+                return;
+            }
+
+            JSArray results = new JSArray();
+            for (JSObject result : pending) {
+                results.put(result);
+            }
+            pending.clear();
+
+            JSObject ret = new JSObject();
+            ret.put("results", results);
+            resolve(ret);
+        }
+
+        private void resolve(JSObject ret) {
+            ret.put("id", id);
+            if (dropped > 0) {
+                ret.put("dropped", dropped);
+                dropped = 0;
+            }
+            call.resolve(ret);
+        }
+
+        void cancel() {
+            cancelled = true;
+            handler.removeCallbacks(flushRunnable);
+            handler.removeCallbacks(debounceRunnable);
+            handler.post(() -> {
+                debouncedIntent = null;
+                pending.clear();
+                buffered.clear();
+            });
+        }
+    }
 }
@@ -0,0 +1,188 @@
+package kr.co.simplysm.capacitor.broadcast;
+
+import android.content.Intent;
+import android.os.Bundle;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Native-side filtering for one subscription, evaluated on the raw Intent before it is converted.
+ * - where: every predicate on a top-level extra must match
+ * - dedupe: drops an intent whose action and selected extras equal one seen within the window
+ * - throttle: delivers at most one intent per interval (leading edge)
+ * Debounce is applied by the subscription itself since it delays delivery.
+ * Stateful; only used from the receiver thread.
+ */
+class IntentRules {
+
+    private final List<Predicate> predicates = new ArrayList<>();
+    private List<String> dedupeKeys; // null: every extra
+    private long dedupeWindow;
+    private long throttle;
+    private long debounce;
+
+    private final LinkedHashMap<String, Long> recentSignatures = new LinkedHashMap<>();
+    private long lastDeliveredAt = Long.MIN_VALUE;
+
+    /**
+     * @return Rules from the subscribe call, or null if none were given
+     */
+    static IntentRules from(PluginCall call) throws JSONException {
+        IntentRules rules = new IntentRules();
+        boolean any = false;
+
+        JSArray where = call.getArray("where");
+        if (where != null) {
+            for (int i = 0; i < where.length(); i++) {
+                rules.predicates.add(Predicate.parse(where.getJSONObject(i)));
+            }
+            any = where.length() > 0;
+        }
+
+        JSObject dedupe = call.getObject("dedupe");
+        if (dedupe != null) {
+            JSONArray keys = dedupe.optJSONArray("keys");
+            if (keys != null) {
+                rules.dedupeKeys = new ArrayList<>();
+                for (int i = 0; i < keys.length(); i++) {
+                    rules.dedupeKeys.add(keys.getString(i));
+                }
+            }
+            rules.dedupeWindow = Math.max(0, dedupe.optLong("window", 0));
+            any |= rules.dedupeWindow > 0;
+        }
+
+        rules.throttle = Math.max(0, call.getInt("throttle", 0));
+        rules.debounce = Math.max(0, call.getInt("debounce", 0));
+        any |= rules.throttle > 0 || rules.debounce > 0;
+
+        return any ? rules : null;
+    }
+
+    long getDebounce() {
+        return debounce;
+    }
+
+    /**
+     * @param now Monotonic time in ms
+     * @return Whether the intent passes; a passing intent is recorded for dedupe and throttle
+     */
+    boolean accept(Intent intent, long now) {
+        Bundle extras = intent.getExtras();
+        for (Predicate predicate : predicates) {
+            if (!predicate.test(extras)) {
+                return false;
+            }
+        }
+
+        String signature = null;
+        if (dedupeWindow > 0) {
+            // Entries are kept in time order, so expired ones are at the head
+            Iterator<Map.Entry<String, Long>> it = recentSignatures.entrySet().iterator();
+            while (it.hasNext() && now - it.next().getValue() >= dedupeWindow) {
+                it.remove();
+            }
+
+            signature = signatureOf(intent.getAction(), extras);
+            if (recentSignatures.containsKey(signature)) {
+                return false;
+            }
+        }
+
+        if (throttle > 0 && lastDeliveredAt != Long.MIN_VALUE && now - lastDeliveredAt < throttle) {
+            return false;
+        }
+
+        if (signature != null) {
+            recentSignatures.put(signature, now);
+        }
+        lastDeliveredAt = now;
+        return true;
+    }
+
+    private String signatureOf(String action, Bundle extras) {
+        StringBuilder sb = new StringBuilder(String.valueOf(action));
+        if (extras == null) {
+            return sb.toString();
+        }
+
+        Iterable<String> keys = dedupeKeys != null ? dedupeKeys : new TreeSet<>(extras.keySet());
+        for (String key : keys) {
+            sb.append('\n').append(key).append('=').append(valueToString(extras.get(key)));
+        }
+        return sb.toString();
+    }
+
+    private static String valueToString(Object value) {
+        if (value instanceof Object[]) {
+            return Arrays.deepToString((Object[]) value);
+        } else if (value instanceof byte[]) {
+            return Arrays.toString((byte[]) value);
+        } else if (value instanceof int[]) {
+            return Arrays.toString((int[]) value);
+        } else if (value instanceof long[]) {
+            return Arrays.toString((long[]) value);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Condition on a top-level extra. Values are compared by their string form.
+     */
+    private static class Predicate {
+        private String key;
+        private Boolean exists;
+        private String equalsValue;
+        private String notEqualsValue;
+        private Pattern matches;
+
+        static Predicate parse(JSONObject json) throws JSONException {
+            Predicate predicate = new Predicate();
+            predicate.key = json.getString("key");
+            if (json.has("exists")) {
+                predicate.exists = json.optBoolean("exists", true);
+            }
+            if (json.has("equals")) {
+                predicate.equalsValue = String.valueOf(json.opt("equals"));
+            }
+            if (json.has("notEquals")) {
+                predicate.notEqualsValue = String.valueOf(json.opt("notEquals"));
+            }
+            if (json.has("matches")) {
+                predicate.matches = Pattern.compile(json.getString("matches"));
+            }
+            return predicate;
+        }
+
+        boolean test(Bundle extras) {
+            boolean present = extras != null && extras.containsKey(key);
+            if (exists != null && exists != present) {
+                return false;
+            }
+
+            String value = present ? valueToString(extras.get(key)) : null;
+            if (equalsValue != null && !equalsValue.equals(value)) {
+                return false;
+            }
+            if (notEqualsValue != null && notEqualsValue.equals(value)) {
+                return false;
+            }
+            return matches == null || (value != null && matches.matcher(value).find());
+        }
+    }
+}
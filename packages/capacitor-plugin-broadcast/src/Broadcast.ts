@@ -1,6 +1,13 @@
 import { registerPlugin } from "@capacitor/core";
 import type { PluginListenerHandle } from "@capacitor/core";
-import type { BroadcastPlugin, BroadcastResult } from "./BroadcastPlugin";
+import type {
+  BroadcastBatchOptions,
+  BroadcastIntent,
+  BroadcastOrderedResult,
+  BroadcastPlugin,
+  BroadcastResult,
+  BroadcastSubscribeOptions,
+} from "./BroadcastPlugin";
 
 const broadcastPlugin = registerPlugin<BroadcastPlugin>("Broadcast", {
   web: async () => {
@@ -16,6 +23,8 @@ const broadcastPlugin = registerPlugin<BroadcastPlugin>("Broadcast", {
 export abstract class Broadcast {
   /**
    * Register broadcast receiver
+   * @param options Extras projection (only the listed keys are converted natively), pause buffer size,
+   *   and `onDropped` called with the number of results evicted from a full pause buffer
    * @returns Unsubscribe function
    *
    * @example
@@ -32,13 +41,61 @@ export abstract class Broadcast {
   static async subscribe(
     filters: string[],
     callback: (result: BroadcastResult) => void,
+    options?: BroadcastSubscribeOptions & { onDropped?: (count: number) => void },
   ): Promise<() => Promise<void>> {
-    const { id } = await broadcastPlugin.subscribe({ filters }, (result) => {
-      // Filter out the initial resolve that only contains { id }
-      if (result.action != null) {
-        callback(result);
-      }
-    });
+    const { onDropped, ...subscribeOptions } = options ?? {};
+    const { id } = await broadcastPlugin.subscribe(
+      { filters, ...subscribeOptions },
+      ({ dropped, ...result }) => {
+        if (dropped != null) {
+          onDropped?.(dropped);
+        }
+        // Filter out the initial resolve that only contains { id }
+        if (result.action != null) {
+          callback(result);
+        }
+      },
+    );
+    return async () => {
+      await broadcastPlugin.unsubscribe({ id });
+    };
+  }
+
+  /**
+   * Register broadcast receiver with batched delivery
+   * - Results are buffered natively and delivered as one array per flush,
+   *   so bridge traffic scales with time instead of event count
+   * @returns Unsubscribe function
+   *
+   * @example
+   * ```ts
+   * const unsub = await Broadcast.subscribeBatch(
+   *   ["com.symbol.datawedge.api.RESULT_ACTION"],
+   *   (results) => results.forEach((result) => console.log(result.extras)),
+   *   { maxSize: 100, maxLatency: 50 }
+   * );
+   * ```
+   */
+  static async subscribeBatch(
+    filters: string[],
+    callback: (results: BroadcastResult[]) => void,
+    options?: BroadcastBatchOptions &
+      BroadcastSubscribeOptions & { onDropped?: (count: number) => void },
+  ): Promise<() => Promise<void>> {
+    const { maxSize, maxLatency, onDropped, ...subscribeOptions } = options ?? {};
+    const batch = { maxSize, maxLatency };
+    const { id } = await broadcastPlugin.subscribe(
+      { filters, batch, ...subscribeOptions },
+      (result) => {
+        if (result.dropped != null) {
+          onDropped?.(result.dropped);
+        }
+        // Filter out the initial resolve that only contains { id }
+        if (result.results != null) {
+          callback(result.results);
+        }
+      },
+    );
     return async () => {
       await broadcastPlugin.unsubscribe({ id });
     };
@@ -53,6 +110,7 @@ export abstract class Broadcast {
 
   /**
    * Send broadcast
+   * - With `local: true`, delivered in-process to this app's own subscriptions only
    *
    * @example
    * ```ts
@@ -64,10 +122,43 @@ export abstract class Broadcast {
    * });
    * ```
    */
-  static async send(options: { action: string; extras?: Record<string, unknown> }): Promise<void> {
+  static async send(options: BroadcastIntent): Promise<void> {
     await broadcastPlugin.send(options);
   }
 
+  /**
+   * Send multiple broadcasts in one bridge call
+   * - Nothing is sent if any intent is invalid
+   *
+   * @example
+   * ```ts
+   * await Broadcast.sendBatch([
+   *   { action: "com.symbol.datawedge.api.ACTION", extras: { ... } },
+   *   { action: "com.symbol.datawedge.api.ACTION", extras: { ... } },
+   * ]);
+   * ```
+   */
+  static async sendBatch(intents: BroadcastIntent[]): Promise<void> {
+    await broadcastPlugin.sendBatch({ intents });
+  }
+
+  /**
+   * Send ordered broadcast and collect the result set by the receivers
+   *
+   * @example
+   * ```ts
+   * const { resultCode, resultExtras } = await Broadcast.sendOrdered({
+   *   action: "com.example.printer.GET_STATUS",
+   *   package: "com.example.printer",
+   * });
+   * ```
+   */
+  static async sendOrdered(
+    options: BroadcastIntent & { initialCode?: number; initialData?: string },
+  ): Promise<BroadcastOrderedResult> {
+    return broadcastPlugin.sendOrdered(options);
+  }
+
   /**
    * Get launch intent
    */
@@ -7,13 +7,104 @@ export interface BroadcastResult {
   extras?: Record<string, unknown>;
 }
 
+export interface BroadcastIntent {
+  /** Broadcast action */
+  action: string;
+  /** Extra data */
+  extras?: Record<string, unknown>;
+  /** Restrict delivery to receivers in this package */
+  package?: string;
+  /** Explicit target component as "package/class" (e.g. "com.example/.MyReceiver") */
+  component?: string;
+  /**
+   * Deliver only to this app's own subscriptions, in-process (no system server round trip)
+   * - `package` and `component` are ignored
+   * - Not supported by `sendOrdered`
+   */
+  local?: boolean;
+}
+
+export interface BroadcastOrderedResult {
+  /** Result code set by the last receiver (initialCode if none set it) */
+  resultCode: number;
+  /** Result data set by the receivers */
+  resultData?: string;
+  /** Result extras set by the receivers */
+  resultExtras?: Record<string, unknown>;
+}
+
+export interface BroadcastExtraPredicate {
+  /** Top-level extra key */
+  key: string;
+  /** Whether the extra must be present (true) or absent (false) */
+  exists?: boolean;
+  /** Value must equal (compared as strings) */
+  equals?: string | number | boolean;
+  /** Value must not equal (compared as strings) */
+  notEquals?: string | number | boolean;
+  /** Value (as string) must match this regular expression (Java syntax) */
+  matches?: string;
+}
+
+export interface BroadcastDedupeOptions {
+  /** Extras that identify a duplicate together with the action (default: all top-level extras) */
+  keys?: string[];
+  /** Window in ms during which an identical intent is dropped */
+  window: number;
+}
+
+export interface BroadcastSubscribeOptions {
+  /**
+   * Extras to convert; other keys are not read
+   * - A string selects a top-level key
+   * - An array selects a key path into nested Bundles (e.g. `["bundle", "inner"]`)
+   */
+  extras?: (string | string[])[];
+  /** Maximum Bundle nesting depth to convert; extras themselves are depth 1 */
+  maxDepth?: number;
+  /**
+   * Results held while the app is paused and replayed in order on resume (default: 100)
+   * - When full, the oldest result is dropped
+   * - 0 disables buffering
+   */
+  bufferSize?: number;
+  /** Only deliver intents whose extras match every predicate */
+  where?: BroadcastExtraPredicate[];
+  /** Drop intents identical to one delivered within the window */
+  dedupe?: BroadcastDedupeOptions;
+  /** Deliver at most one intent per interval in ms; later ones within the interval are dropped */
+  throttle?: number;
+  /** Deliver only the last intent once no new one has arrived for this many ms */
+  debounce?: number;
+}
+
+export interface BroadcastDropInfo {
+  /** Number of results dropped from the pause buffer since the previous delivery */
+  dropped?: number;
+}
+
+export interface BroadcastBatchOptions {
+  /** Maximum number of results per batch (default: 50) */
+  maxSize?: number;
+  /** Maximum time in ms a result waits before the batch is flushed (default: 100) */
+  maxLatency?: number;
+}
+
+export interface BroadcastBatchResult {
+  /** Results buffered since the previous flush, in arrival order */
+  results: BroadcastResult[];
+}
+
 export interface BroadcastPlugin {
   /**
    * Register broadcast receiver
+   * - With `batch`, results are buffered natively and delivered as `{ results }`
    */
   subscribe(
-    options: { filters: string[] },
-    callback: (result: BroadcastResult) => void,
+    options: { filters: string[]; batch?: BroadcastBatchOptions } & BroadcastSubscribeOptions,
+    callback: (
+      result: BroadcastResult & Partial<BroadcastBatchResult> & BroadcastDropInfo,
+    ) => void,
   ): Promise<{ id: string }>;
 
   /**
@@ -29,7 +120,20 @@ export interface BroadcastPlugin {
   /**
    * Send broadcast
    */
-  send(options: { action: string; extras?: Record<string, unknown> }): Promise<void>;
+  send(options: BroadcastIntent): Promise<void>;
+
+  /**
+   * Send multiple broadcasts in one call
+   * - Nothing is sent if any intent is invalid
+   */
+  sendBatch(options: { intents: BroadcastIntent[] }): Promise<void>;
+
+  /**
+   * Send ordered broadcast and collect the final result
+   */
+  sendOrdered(
+    options: BroadcastIntent & { initialCode?: number; initialData?: string },
+  ): Promise<BroadcastOrderedResult>;
 
   /**
    * Get launch intent
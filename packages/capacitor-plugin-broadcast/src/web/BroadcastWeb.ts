@@ -1,5 +1,14 @@
 import { WebPlugin } from "@capacitor/core";
-import type { BroadcastPlugin, BroadcastResult } from "../BroadcastPlugin";
+import type {
+  BroadcastBatchOptions,
+  BroadcastBatchResult,
+  BroadcastDropInfo,
+  BroadcastIntent,
+  BroadcastOrderedResult,
+  BroadcastPlugin,
+  BroadcastResult,
+  BroadcastSubscribeOptions,
+} from "../BroadcastPlugin";
 
 export class BroadcastWeb extends WebPlugin implements BroadcastPlugin {
   private static readonly _warn = () =>
@@ -7,8 +16,10 @@ export class BroadcastWeb extends WebPlugin implements BroadcastPlugin {
     console.warn("[Broadcast] Broadcast is not supported in web environment.");
 
   subscribe(
-    _options: { filters: string[] },
-    _callback: (result: BroadcastResult) => void,
+    _options: { filters: string[]; batch?: BroadcastBatchOptions } & BroadcastSubscribeOptions,
+    _callback: (
+      result: BroadcastResult & Partial<BroadcastBatchResult> & BroadcastDropInfo,
+    ) => void,
   ): Promise<{ id: string }> {
     BroadcastWeb._warn();
     return Promise.resolve({ id: "web-stub" });
@@ -22,11 +33,23 @@ export class BroadcastWeb extends WebPlugin implements BroadcastPlugin {
     // No-op on web
   }
 
-  send(_options: { action: string; extras?: Record<string, unknown> }): Promise<void> {
+  send(_options: BroadcastIntent): Promise<void> {
     BroadcastWeb._warn();
     return Promise.resolve();
   }
 
+  sendBatch(_options: { intents: BroadcastIntent[] }): Promise<void> {
+    BroadcastWeb._warn();
+    return Promise.resolve();
+  }
+
+  sendOrdered(
+    _options: BroadcastIntent & { initialCode?: number; initialData?: string },
+  ): Promise<BroadcastOrderedResult> {
+    BroadcastWeb._warn();
+    return Promise.resolve({ resultCode: 0 });
+  }
+
   getLaunchIntent(): Promise<BroadcastResult> {
     return Promise.resolve({});
   }
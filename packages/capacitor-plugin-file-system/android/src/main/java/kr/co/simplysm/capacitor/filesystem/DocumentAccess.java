@@ -0,0 +1,279 @@
+package kr.co.simplysm.capacitor.filesystem;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.UUID;
+
+/**
+ * Opens plain file paths and content:// URIs (SAF documents and DocumentsContract tree URIs) the same way,
+ * as ParcelFileDescriptors, so reads, writes and copies stream through the descriptor without going via JS.
+ * Access to a content:// URI must already be granted (picker result or takePersistableUriPermission).
+ */
+final class DocumentAccess {
+
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    private static final String[] CHILD_PROJECTION = {
+        DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+        DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+        DocumentsContract.Document.COLUMN_MIME_TYPE
+    };
+
+    private DocumentAccess() {
+    }
+
+    static boolean isContentUri(String path) {
+        return path.startsWith(ContentResolver.SCHEME_CONTENT + "://");
+    }
+
+    static FileInputStream openInput(Context ctx, String path) throws FileNotFoundException {
+        return new ParcelFileDescriptor.AutoCloseInputStream(openRead(ctx, path));
+    }
+
+    /**
+     * Truncates an existing file/document, or creates a file (and its parent directories) for a plain path.
+     */
+    static FileOutputStream openOutput(Context ctx, String path) throws FileNotFoundException {
+        return new ParcelFileDescriptor.AutoCloseOutputStream(openWrite(ctx, path));
+    }
+
+    /**
+     * @return Size in bytes, or -1 if the provider does not report one
+     */
+    static long sizeOf(Context ctx, String path) {
+        if (!isContentUri(path)) {
+            return new File(path).length();
+        }
+
+        String[] projection = {OpenableColumns.SIZE};
+        try (Cursor cursor = ctx.getContentResolver().query(Uri.parse(path), projection, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Children of a directory given as a tree URI (or a directory document URI inside one).
+     * Read with a single query instead of a lookup per child.
+     */
+    static JSArray list(Context ctx, String path) throws FileNotFoundException {
+        Uri uri = Uri.parse(path);
+        if (!DocumentsContract.isTreeUri(uri)) {
+            throw new FileNotFoundException("Not a tree URI: " + path);
+        }
+
+        Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(uri, documentIdOf(ctx, uri));
+        JSArray result = new JSArray();
+        try (Cursor cursor = ctx.getContentResolver().query(childrenUri, CHILD_PROJECTION, null, null, null)) {
+            if (cursor == null) {
+                throw new FileNotFoundException("Cannot read directory: " + path);
+            }
+            while (cursor.moveToNext()) {
+                JSObject info = new JSObject();
+                info.put("name", cursor.getString(1));
+                info.put("isDirectory", DocumentsContract.Document.MIME_TYPE_DIR.equals(cursor.getString(2)));
+                info.put("uri", DocumentsContract.buildDocumentUriUsingTree(uri, cursor.getString(0)).toString());
+                result.put(info);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Where a copy of from should be written: a new document when to is a tree (directory) URI,
+     * to/name when to is an existing directory, otherwise to itself.
+     */
+    static String resolveCopyTarget(Context ctx, String from, String to) throws FileNotFoundException {
+        if (isContentUri(to)) {
+            Uri uri = Uri.parse(to);
+            if (!isDirectory(ctx, uri)) {
+                return to;
+            }
+
+            ContentResolver resolver = ctx.getContentResolver();
+            Uri parent = DocumentsContract.buildDocumentUriUsingTree(uri, documentIdOf(ctx, uri));
+            String mimeType = isContentUri(from) ? resolver.getType(Uri.parse(from)) : null;
+            Uri created = DocumentsContract.createDocument(
+                resolver,
+                parent,
+                mimeType != null ? mimeType : DEFAULT_MIME_TYPE,
+                displayNameOf(ctx, from)
+            );
+            if (created == null) {
+                throw new FileNotFoundException("Cannot create document in: " + to);
+            }
+            return created.toString();
+        }
+
+        File target = new File(to);
+        return target.isDirectory() ? new File(target, displayNameOf(ctx, from)).getAbsolutePath() : to;
+    }
+
+    /**
+     * Whether both name the same file (canonical paths) or the same document (URIs).
+     * A copy onto itself would truncate the source before reading it.
+     */
+    static boolean isSameFile(String a, String b) throws IOException {
+        if (isContentUri(a) || isContentUri(b)) {
+            return Uri.parse(a).equals(Uri.parse(b));
+        }
+        return new File(a).getCanonicalPath().equals(new File(b).getCanonicalPath());
+    }
+
+    /**
+     * A plain path target is written to a temp file next to it and renamed over it once complete, so a failed
+     * copy leaves neither a partial file nor a damaged original. A content:// target is written in place.
+     * @return Bytes copied
+     */
+    static long copy(Context ctx, String from, String to) throws IOException {
+        if (isContentUri(to)) {
+            return copyTo(ctx, from, to);
+        }
+
+        File target = new File(to).getAbsoluteFile();
+        File temp = new File(target.getParentFile(), "." + target.getName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            long size = copyTo(ctx, from, temp.getPath());
+            if (!temp.renameTo(target)) {
+                throw new IOException("Cannot replace: " + to);
+            }
+            return size;
+        } finally {
+            temp.delete(); // no-op once renamed
+        }
+    }
+
+    /**
+     * Regular files are copied with FileChannel.transferTo; descriptors without a size (pipes from some
+     * providers), or a transfer that stops making progress, continue with a buffered copy.
+     */
+    private static long copyTo(Context ctx, String from, String to) throws IOException {
+        ParcelFileDescriptor src = openRead(ctx, from);
+        long size = src.getStatSize(); // -1 if not a regular file
+
+        try (FileInputStream in = new ParcelFileDescriptor.AutoCloseInputStream(src);
+             FileOutputStream out = openOutput(ctx, to)) {
+            long total = 0;
+            if (size >= 0) {
+                FileChannel inChannel = in.getChannel();
+                FileChannel outChannel = out.getChannel();
+                while (total < size) {
+                    long n = inChannel.transferTo(total, size - total, outChannel);
+                    if (n <= 0) {
+                        break;
+                    }
+                    total += n;
+                }
+                // transferTo leaves the input position alone; the buffered copy picks up where it stopped
+                inChannel.position(total);
+            }
+
+            byte[] buf = new byte[FileCompression.BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buf)) != -1) {
+                out.write(buf, 0, len);
+                total += len;
+            }
+            if (size >= 0 && total < size) {
+                throw new IOException("Copy ended early: " + total + " of " + size + " bytes");
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Removes a document (e.g. one created by resolveCopyTarget for a copy that then failed).
+     * @return Whether it was deleted
+     */
+    static boolean deleteDocument(Context ctx, String path) {
+        try {
+            return DocumentsContract.deleteDocument(ctx.getContentResolver(), Uri.parse(path));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static ParcelFileDescriptor openRead(Context ctx, String path) throws FileNotFoundException {
+        if (isContentUri(path)) {
+            ParcelFileDescriptor pfd = ctx.getContentResolver().openFileDescriptor(Uri.parse(path), "r");
+            if (pfd == null) {
+                throw new FileNotFoundException("Cannot open: " + path);
+            }
+            return pfd;
+        }
+        return ParcelFileDescriptor.open(new File(path), ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    private static ParcelFileDescriptor openWrite(Context ctx, String path) throws FileNotFoundException {
+        if (isContentUri(path)) {
+            ParcelFileDescriptor pfd = ctx.getContentResolver().openFileDescriptor(Uri.parse(path), "wt");
+            if (pfd == null) {
+                throw new FileNotFoundException("Cannot open: " + path);
+            }
+            return pfd;
+        }
+
+        File file = new File(path);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        return ParcelFileDescriptor.open(file,
+            ParcelFileDescriptor.MODE_WRITE_ONLY | ParcelFileDescriptor.MODE_CREATE | ParcelFileDescriptor.MODE_TRUNCATE);
+    }
+
+    /**
+     * A tree URI from ACTION_OPEN_DOCUMENT_TREE names its root; one built for a child names that child.
+     */
+    private static String documentIdOf(Context ctx, Uri uri) {
+        return DocumentsContract.isDocumentUri(ctx, uri)
+            ? DocumentsContract.getDocumentId(uri)
+            : DocumentsContract.getTreeDocumentId(uri);
+    }
+
+    private static boolean isDirectory(Context ctx, Uri uri) {
+        if (!DocumentsContract.isTreeUri(uri)) {
+            return false;
+        } else if (!DocumentsContract.isDocumentUri(ctx, uri)) {
+            return true;
+        }
+
+        String[] projection = {DocumentsContract.Document.COLUMN_MIME_TYPE};
+        try (Cursor cursor = ctx.getContentResolver().query(uri, projection, null, null, null)) {
+            return cursor != null && cursor.moveToFirst()
+                && DocumentsContract.Document.MIME_TYPE_DIR.equals(cursor.getString(0));
+        }
+    }
+
+    private static String displayNameOf(Context ctx, String path) {
+        if (!isContentUri(path)) {
+            return new File(path).getName();
+        }
+
+        Uri uri = Uri.parse(path);
+        String[] projection = {OpenableColumns.DISPLAY_NAME};
+        try (Cursor cursor = ctx.getContentResolver().query(uri, projection, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getString(0);
+            }
+        }
+        return uri.getLastPathSegment();
+    }
+}
@@ -0,0 +1,390 @@
+package kr.co.simplysm.capacitor.filesystem;
+
+import android.os.Handler;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Size-bounded LRU cache of keyed entries stored under one directory.
+ * - The index (key -> file, size, last access, compression) is an access-ordered LinkedHashMap, persisted to
+ *   index.json in LRU order. Index writes are coalesced and, like eviction, run on the given background handler.
+ * - Entry files are named by the SHA-256 of the key and replaced atomically (temp file + rename).
+ * - An entry whose file is missing (e.g. the system cleared the cache dir) counts as a miss and is dropped.
+ * The index is guarded by this instance's monitor; file contents are read and written outside it (a read opens
+ * its file under the monitor, so it sees the version that matches the entry even if a put replaces it meanwhile).
+ */
+class FileCache {
+
+    static final long DEFAULT_MAX_SIZE = 100L * 1024 * 1024;
+
+    private static final String TAG = "FileCache";
+    private static final String INDEX_FILE = "index.json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long SAVE_DELAY = 1000; // ms
+
+    private final File dir;
+    private final Handler handler;
+    // Tags this instance's temp files, so cleanup only removes those of earlier runs
+    private final String session = UUID.randomUUID().toString();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean loaded;
+    private long maxSize = DEFAULT_MAX_SIZE;
+    private long totalSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private boolean savePending;
+
+    private final Runnable saveTask = this::save;
+    private final Runnable trimTask = this::trim;
+
+    FileCache(File dir, Handler handler) {
+        this.dir = dir;
+        this.handler = handler;
+    }
+
+    void put(String key, byte[] data, String compression) throws IOException {
+        ensureLoaded();
+
+        ensureDir();
+        File file = new File(dir, fileNameOf(key));
+        File temp = new File(dir, file.getName() + "." + session + "." + System.nanoTime() + TEMP_SUFFIX);
+        try (OutputStream os = FileCompression.wrap(
+            new BufferedOutputStream(new FileOutputStream(temp), FileCompression.BUFFER_SIZE), compression)) {
+            os.write(data);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+
+        long size = temp.length();
+        synchronized (this) {
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("Failed to store cache entry");
+            }
+
+            Entry entry = new Entry(file.getName(), size, System.currentTimeMillis(), compression);
+            Entry old = entries.put(key, entry);
+            totalSize += entry.size - (old != null ? old.size : 0);
+            scheduleSave();
+            if (totalSize > maxSize) {
+                handler.removeCallbacks(trimTask);
+                handler.post(trimTask);
+            }
+        }
+    }
+
+    /**
+     * @return Entry contents, or null on a miss
+     */
+    byte[] get(String key) throws IOException {
+        ensureLoaded();
+
+        Entry entry;
+        FileInputStream file;
+        synchronized (this) {
+            entry = entries.get(key); // moves the entry to the most recently used end
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+
+            // Opened under the lock: a concurrent put or eviction replaces/deletes the path, but this descriptor
+            // keeps reading the file written with entry.compression
+            try {
+                file = new FileInputStream(new File(dir, entry.file));
+            } catch (FileNotFoundException e) {
+                // Removed by the system
+                removeEntry(key);
+                misses++;
+                scheduleSave();
+                return null;
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            hits++;
+            scheduleSave();
+        }
+
+        try (InputStream raw = file;
+             InputStream is = FileCompression.wrap(
+                 new BufferedInputStream(raw, FileCompression.BUFFER_SIZE), entry.compression);
+             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            byte[] buf = new byte[FileCompression.BUFFER_SIZE];
+            int len;
+            while ((len = is.read(buf)) != -1) {
+                baos.write(buf, 0, len);
+            }
+            return baos.toByteArray();
+        }
+    }
+
+    synchronized boolean evict(String key) {
+        ensureLoaded();
+        if (!entries.containsKey(key)) {
+            return false;
+        }
+        removeEntry(key);
+        scheduleSave();
+        return true;
+    }
+
+    synchronized void clear() {
+        ensureLoaded();
+        for (Entry entry : entries.values()) {
+            new File(dir, entry.file).delete();
+        }
+        entries.clear();
+        totalSize = 0;
+        scheduleSave();
+    }
+
+    synchronized void setMaxSize(long maxSize) {
+        ensureLoaded();
+        this.maxSize = maxSize;
+        scheduleSave();
+        handler.removeCallbacks(trimTask);
+        handler.post(trimTask);
+    }
+
+    synchronized JSObject getStats() {
+        ensureLoaded();
+        JSObject ret = new JSObject();
+        ret.put("count", entries.size());
+        ret.put("size", totalSize);
+        ret.put("maxSize", maxSize);
+        ret.put("hits", hits);
+        ret.put("misses", misses);
+        ret.put("evictions", evictions);
+        return ret;
+    }
+
+    /**
+     * Writes a pending index change now (e.g. when the app goes to the background).
+     */
+    void flush() {
+        synchronized (this) {
+            if (!savePending) {
+                return;
+            }
+        }
+        handler.removeCallbacks(saveTask);
+        handler.post(saveTask);
+    }
+
+    /**
+     * Evicts least recently used entries until the total size fits the budget. Runs on the handler.
+     */
+    private void trim() {
+        synchronized (this) {
+            boolean changed = false;
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (totalSize > maxSize && it.hasNext()) {
+                Entry entry = it.next().getValue();
+                it.remove();
+                new File(dir, entry.file).delete();
+                totalSize -= entry.size;
+                evictions++;
+                changed = true;
+            }
+            if (changed) {
+                scheduleSave();
+            }
+        }
+    }
+
+    private void removeEntry(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            new File(dir, entry.file).delete();
+            totalSize -= entry.size;
+        }
+    }
+
+    private void scheduleSave() {
+        savePending = true;
+        handler.removeCallbacks(saveTask);
+        handler.postDelayed(saveTask, SAVE_DELAY);
+    }
+
+    /**
+     * Persists the index (temp file + rename). Runs on the handler.
+     */
+    private void save() {
+        String json;
+        try {
+            synchronized (this) {
+                savePending = false;
+                JSONArray list = new JSONArray();
+                for (Map.Entry<String, Entry> item : entries.entrySet()) {
+                    Entry entry = item.getValue();
+                    JSONObject obj = new JSONObject();
+                    obj.put("key", item.getKey());
+                    obj.put("file", entry.file);
+                    obj.put("size", entry.size);
+                    obj.put("lastAccess", entry.lastAccess);
+                    if (entry.compression != null) {
+                        obj.put("compression", entry.compression);
+                    }
+                    list.put(obj);
+                }
+                JSONObject root = new JSONObject();
+                root.put("maxSize", maxSize);
+                root.put("entries", list);
+                json = root.toString();
+            }
+
+            ensureDir();
+            File temp = new File(dir, INDEX_FILE + TEMP_SUFFIX);
+            try (OutputStream os = new FileOutputStream(temp)) {
+                os.write(json.getBytes(StandardCharsets.UTF_8));
+            }
+            if (!temp.renameTo(new File(dir, INDEX_FILE))) {
+                throw new IOException("rename failed");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "save index failed", e);
+        }
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        ensureDir();
+
+        File indexFile = new File(dir, INDEX_FILE);
+        if (indexFile.exists()) {
+            try (InputStream is = new FileInputStream(indexFile)) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                byte[] buf = new byte[8192];
+                int len;
+                while ((len = is.read(buf)) != -1) {
+                    baos.write(buf, 0, len);
+                }
+                JSONObject root = new JSONObject(baos.toString("UTF-8"));
+                maxSize = root.optLong("maxSize", DEFAULT_MAX_SIZE);
+
+                // Stored in LRU order, so re-inserting restores the access order
+                JSONArray list = root.getJSONArray("entries");
+                for (int i = 0; i < list.length(); i++) {
+                    JSONObject obj = list.getJSONObject(i);
+                    File file = new File(dir, obj.getString("file"));
+                    if (!file.exists()) {
+                        continue;
+                    }
+                    Entry entry = new Entry(
+                        file.getName(),
+                        file.length(),
+                        obj.optLong("lastAccess", 0),
+                        obj.has("compression") ? obj.getString("compression") : null
+                    );
+                    entries.put(obj.getString("key"), entry);
+                    totalSize += entry.size;
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "load index failed, starting empty", e);
+                entries.clear();
+                totalSize = 0;
+            }
+        }
+
+        // Files not in the index are leftovers of an unsaved index or an interrupted write. Listed under the lock,
+        // so a put completing meanwhile can't have its file taken for an orphan.
+        handler.post(() -> {
+            synchronized (this) {
+                File[] files = dir.listFiles();
+                if (files == null) {
+                    return;
+                }
+
+                Set<String> live = new HashSet<>();
+                for (Entry entry : entries.values()) {
+                    live.add(entry.file);
+                }
+                for (File file : files) {
+                    if (isOrphan(file.getName(), live)) {
+                        file.delete();
+                    }
+                }
+            }
+        });
+
+        if (totalSize > maxSize) {
+            handler.post(trimTask);
+        }
+    }
+
+    private boolean isOrphan(String name, Set<String> live) {
+        if (name.equals(INDEX_FILE)) {
+            return false;
+        } else if (name.endsWith(TEMP_SUFFIX)) {
+            // The index temp file is only written on the handler thread, which is running this
+            return !name.contains(session);
+        }
+        return !live.contains(name);
+    }
+
+    /**
+     * The directory lives under the app cache dir, whose contents the system may delete at any time
+     * (storage pressure, "Clear cache"), so it is recreated before every write rather than only on load.
+     */
+    private void ensureDir() {
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+    }
+
+    private static String fileNameOf(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+        final String file;
+        final long size;
+        long lastAccess;
+        final String compression;
+
+        Entry(String file, long size, long lastAccess, String compression) {
+            this.file = file;
+            this.size = size;
+            this.lastAccess = lastAccess;
+            this.compression = compression;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package kr.co.simplysm.capacitor.filesystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stream wrappers for the "compression" option.
+ * - gzip: RFC 1952 (readable by gzip / DecompressionStream("gzip"))
+ * - deflate: zlib-wrapped RFC 1950 (readable by DecompressionStream("deflate"))
+ * Deflate streams reuse one Deflater/Inflater per thread, so repeated small files don't allocate native zlib state.
+ */
+final class FileCompression {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue() {
+            return new Deflater();
+        }
+    };
+
+    private static final ThreadLocal<Inflater> INFLATER = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+    };
+
+    private FileCompression() {
+    }
+
+    static boolean isSupported(String compression) {
+        return compression == null || "gzip".equals(compression) || "deflate".equals(compression);
+    }
+
+    static OutputStream wrap(OutputStream out, String compression) throws IOException {
+        if ("gzip".equals(compression)) {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        } else if ("deflate".equals(compression)) {
+            Deflater deflater = DEFLATER.get();
+            deflater.reset();
+            // A caller-supplied Deflater is finished but not ended on close, so it stays reusable
+            return new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+        }
+        return out;
+    }
+
+    static InputStream wrap(InputStream in, String compression) throws IOException {
+        if ("gzip".equals(compression)) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        } else if ("deflate".equals(compression)) {
+            Inflater inflater = INFLATER.get();
+            inflater.reset();
+            return new InflaterInputStream(in, inflater, BUFFER_SIZE);
+        }
+        return in;
+    }
+}
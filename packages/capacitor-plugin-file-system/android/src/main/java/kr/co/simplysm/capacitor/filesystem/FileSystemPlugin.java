@@ -7,6 +7,10 @@ import android.content.pm.PackageManager;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
 import android.provider.Settings;
 import android.util.Base64;
 import android.util.Log;
@@ -24,12 +28,60 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @CapacitorPlugin(name = "FileSystem")
 public class FileSystemPlugin extends Plugin {
 
     private static final String TAG = "FileSystemPlugin";
     private static final int PERMISSION_REQUEST_CODE = 1001;
+    private static final int DEFAULT_STREAM_CHUNK_SIZE = 512 * 1024;
+    private static final int DEFAULT_JOB_WINDOW = 4;
+    private static final long PROGRESS_INTERVAL = 100; // ms
+
+    // Managed cache (cachePut/cacheGet/...); eviction and index writes run on cacheThread
+    private HandlerThread cacheThread;
+    private FileCache cache;
+
+    // Jobs (startRemove, readFileStream) each get a pool thread, since a stream may block waiting for acks
+    private final ExecutorService jobExecutor = Executors.newCachedThreadPool();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Override
+    public void load() {
+        super.load();
+        cacheThread = new HandlerThread("FileSystemCache", Process.THREAD_PRIORITY_BACKGROUND);
+        cacheThread.start();
+        cache = new FileCache(
+            new File(getContext().getCacheDir(), "managed-cache"),
+            new Handler(cacheThread.getLooper())
+        );
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        cache.flush();
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        for (Job job : jobs.values()) {
+            job.cancel();
+        }
+        jobs.clear();
+        jobExecutor.shutdown();
+        cache.flush();
+        if (cacheThread != null) {
+            cacheThread.quitSafely();
+            cacheThread = null;
+        }
+        super.handleOnDestroy();
+    }
 
     @PluginMethod
     public void checkPermissions(PluginCall call) {
@@ -80,6 +132,18 @@ public class FileSystemPlugin extends Plugin {
             return;
         }
 
+        if (DocumentAccess.isContentUri(path)) {
+            try {
+                JSObject ret = new JSObject();
+                ret.put("files", DocumentAccess.list(getContext(), path));
+                call.resolve(ret);
+            } catch (Exception e) {
+                Log.e(TAG, "readdir failed", e);
+                call.reject("readdir failed: " + e.getMessage());
+            }
+            return;
+        }
+
         File dir = new File(path);
         if (!dir.exists() || !dir.isDirectory()) {
             call.reject("Directory does not exist");
@@ -179,25 +243,24 @@ public class FileSystemPlugin extends Plugin {
         String path = call.getString("path");
         String data = call.getString("data");
         String encoding = call.getString("encoding", "utf8");
+        String compression = call.getString("compression");
 
         if (path == null || data == null) {
             call.reject("path and data are required");
             return;
         }
+        if (!FileCompression.isSupported(compression)) {
+            call.reject("Unknown compression: " + compression);
+            return;
+        }
 
         try {
-            File file = new File(path);
-            File parent = file.getParentFile();
-            if (parent != null && !parent.exists()) {
-                parent.mkdirs();
-            }
+            byte[] bytes = decode(data, encoding);
 
-            byte[] bytes = "base64".equals(encoding)
-                ? Base64.decode(data, Base64.DEFAULT)
-                : data.getBytes(StandardCharsets.UTF_8);
-
-            try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(file))) {
-                bos.write(bytes);
+            try (OutputStream os = FileCompression.wrap(
+                new BufferedOutputStream(DocumentAccess.openOutput(getContext(), path), FileCompression.BUFFER_SIZE),
+                compression)) {
+                os.write(bytes);
             }
 
             call.resolve();
@@ -211,33 +274,35 @@ public class FileSystemPlugin extends Plugin {
     public void readFile(PluginCall call) {
         String path = call.getString("path");
         String encoding = call.getString("encoding", "utf8");
+        String compression = call.getString("compression");
 
         if (path == null) {
             call.reject("path is required");
             return;
         }
+        if (!FileCompression.isSupported(compression)) {
+            call.reject("Unknown compression: " + compression);
+            return;
+        }
 
-        File file = new File(path);
-        if (!file.exists()) {
+        if (!DocumentAccess.isContentUri(path) && !new File(path).exists()) {
             call.reject("File not found: " + path);
             return;
         }
 
-        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file));
+        try (InputStream is = FileCompression.wrap(
+                 new BufferedInputStream(DocumentAccess.openInput(getContext(), path), FileCompression.BUFFER_SIZE),
+                 compression);
              ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
 
-            byte[] buf = new byte[8192];
+            byte[] buf = new byte[FileCompression.BUFFER_SIZE];
             int len;
-            while ((len = bis.read(buf)) != -1) {
+            while ((len = is.read(buf)) != -1) {
                 baos.write(buf, 0, len);
             }
 
-            String result = "base64".equals(encoding)
-                ? Base64.encodeToString(baos.toByteArray(), Base64.NO_WRAP)
-                : baos.toString("UTF-8");
-
             JSObject ret = new JSObject();
-            ret.put("data", result);
+            ret.put("data", encode(baos.toByteArray(), encoding));
             call.resolve(ret);
         } catch (Exception e) {
             Log.e(TAG, "readFile failed", e);
@@ -245,6 +310,43 @@ public class FileSystemPlugin extends Plugin {
         }
     }
 
+    @PluginMethod
+    public void copy(PluginCall call) {
+        String from = call.getString("from");
+        String to = call.getString("to");
+        if (from == null || to == null) {
+            call.reject("from and to are required");
+            return;
+        }
+
+        try {
+            String target = DocumentAccess.resolveCopyTarget(getContext(), from, to);
+            if (DocumentAccess.isSameFile(from, target)) {
+                call.reject("copy failed: source and target are the same file: " + target);
+                return;
+            }
+
+            long size;
+            try {
+                size = DocumentAccess.copy(getContext(), from, target);
+            } catch (IOException e) {
+                // Don't leave a half-written document behind in the target tree
+                if (!target.equals(to) && DocumentAccess.isContentUri(target)) {
+                    DocumentAccess.deleteDocument(getContext(), target);
+                }
+                throw e;
+            }
+
+            JSObject ret = new JSObject();
+            ret.put("path", target);
+            ret.put("size", size);
+            call.resolve(ret);
+        } catch (Exception e) {
+            Log.e(TAG, "copy failed", e);
+            call.reject("copy failed: " + e.getMessage());
+        }
+    }
+
     @PluginMethod
     public void remove(PluginCall call) {
         String path = call.getString("path");
@@ -260,6 +362,116 @@ public class FileSystemPlugin extends Plugin {
         }
     }
 
+    /**
+     * Job variant of remove: reports {processed} progress while deleting and can be cancelled between entries.
+     */
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void startRemove(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null) {
+            call.reject("path is required");
+            return;
+        }
+
+        Job job = startJob(call, "remove", DEFAULT_JOB_WINDOW);
+        jobExecutor.execute(() -> {
+            job.run(j -> {
+                long[] state = {0, SystemClock.uptimeMillis()}; // processed, last progress time
+                deleteRecursively(new File(path), j, state);
+
+                JSObject result = new JSObject();
+                result.put("processed", state[0]);
+                return result;
+            });
+            jobs.remove(job.id);
+        });
+    }
+
+    /**
+     * Job variant of readFile for large files: sent as "chunk" events ({data, offset, total}) that must be
+     * acknowledged with ackJob. total is -1 when unknown (compressed, or not reported by the provider).
+     */
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void readFileStream(PluginCall call) {
+        String path = call.getString("path");
+        String compression = call.getString("compression");
+        int chunkSize = Math.max(1, call.getInt("chunkSize", DEFAULT_STREAM_CHUNK_SIZE));
+        int window = call.getInt("window", DEFAULT_JOB_WINDOW);
+
+        if (path == null) {
+            call.reject("path is required");
+            return;
+        }
+        if (!FileCompression.isSupported(compression)) {
+            call.reject("Unknown compression: " + compression);
+            return;
+        }
+
+        Job job = startJob(call, "readFileStream", window);
+        jobExecutor.execute(() -> {
+            job.run(j -> {
+                long total = compression == null ? DocumentAccess.sizeOf(getContext(), path) : -1;
+                try (InputStream is = FileCompression.wrap(
+                    new BufferedInputStream(DocumentAccess.openInput(getContext(), path), FileCompression.BUFFER_SIZE),
+                    compression)) {
+                    // One buffer for the whole job; each chunk is encoded before the next read
+                    byte[] buf = new byte[chunkSize];
+                    long offset = 0;
+                    while (true) {
+                        int length = 0;
+                        int n;
+                        while (length < chunkSize && (n = is.read(buf, length, chunkSize - length)) != -1) {
+                            length += n;
+                        }
+                        if (length == 0) {
+                            break;
+                        }
+
+                        JSObject event = new JSObject();
+                        event.put("data", Base64.encodeToString(buf, 0, length, Base64.NO_WRAP));
+                        event.put("offset", offset);
+                        event.put("total", total);
+                        j.emitChunk(event);
+                        offset += length;
+                    }
+                }
+                return null;
+            });
+            jobs.remove(job.id);
+        });
+    }
+
+    @PluginMethod
+    public void cancelJob(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null) {
+            call.reject("id is required");
+            return;
+        }
+
+        // An unknown id has already finished
+        Job job = jobs.get(id);
+        if (job != null) {
+            job.cancel();
+        }
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void ackJob(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null) {
+            call.reject("id is required");
+            return;
+        }
+
+        Job job = jobs.get(id);
+        if (job != null) {
+            job.ack();
+        }
+        call.resolve();
+    }
+
     @PluginMethod
     public void mkdir(PluginCall call) {
         String path = call.getString("path");
@@ -289,6 +501,141 @@ public class FileSystemPlugin extends Plugin {
         call.resolve(ret);
     }
 
+    @PluginMethod
+    public void cachePut(PluginCall call) {
+        String key = call.getString("key");
+        String data = call.getString("data");
+        String encoding = call.getString("encoding", "utf8");
+        String compression = call.getString("compression");
+
+        if (key == null || data == null) {
+            call.reject("key and data are required");
+            return;
+        }
+        if (!FileCompression.isSupported(compression)) {
+            call.reject("Unknown compression: " + compression);
+            return;
+        }
+
+        try {
+            cache.put(key, decode(data, encoding), compression);
+            call.resolve();
+        } catch (Exception e) {
+            Log.e(TAG, "cachePut failed", e);
+            call.reject("cachePut failed: " + e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void cacheGet(PluginCall call) {
+        String key = call.getString("key");
+        String encoding = call.getString("encoding", "utf8");
+
+        if (key == null) {
+            call.reject("key is required");
+            return;
+        }
+
+        try {
+            byte[] bytes = cache.get(key);
+            JSObject ret = new JSObject();
+            ret.put("hit", bytes != null);
+            if (bytes != null) {
+                ret.put("data", encode(bytes, encoding));
+            }
+            call.resolve(ret);
+        } catch (Exception e) {
+            Log.e(TAG, "cacheGet failed", e);
+            call.reject("cacheGet failed: " + e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void cacheEvict(PluginCall call) {
+        String key = call.getString("key");
+        if (key == null) {
+            call.reject("key is required");
+            return;
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("evicted", cache.evict(key));
+        call.resolve(ret);
+    }
+
+    @PluginMethod
+    public void cacheClear(PluginCall call) {
+        cache.clear();
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void cacheConfigure(PluginCall call) {
+        Long maxSize = call.getLong("maxSize");
+        if (maxSize == null || maxSize < 0) {
+            call.reject("maxSize is required");
+            return;
+        }
+
+        cache.setMaxSize(maxSize);
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void cacheStats(PluginCall call) {
+        call.resolve(cache.getStats());
+    }
+
+    private static byte[] decode(String data, String encoding) {
+        return "base64".equals(encoding)
+            ? Base64.decode(data, Base64.DEFAULT)
+            : data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String encode(byte[] bytes, String encoding) {
+        return "base64".equals(encoding)
+            ? Base64.encodeToString(bytes, Base64.NO_WRAP)
+            : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Job startJob(PluginCall call, String name, int window) {
+        call.setKeepAlive(true);
+        Job job = new Job(UUID.randomUUID().toString(), name, call, getBridge(), window);
+        jobs.put(job.id, job);
+
+        JSObject ret = new JSObject();
+        ret.put("id", job.id);
+        call.resolve(ret);
+        return job;
+    }
+
+    /**
+     * @param state {processed entries, uptime of the last progress event}
+     */
+    private void deleteRecursively(File file, Job job, long[] state) throws Exception {
+        job.throwIfCancelled();
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    deleteRecursively(child, job, state);
+                }
+            }
+        }
+        if (!file.delete()) {
+            throw new IOException("Delete failed: " + file.getAbsolutePath());
+        }
+
+        state[0]++;
+        long now = SystemClock.uptimeMillis();
+        if (now - state[1] >= PROGRESS_INTERVAL) {
+            state[1] = now;
+            JSObject event = new JSObject();
+            event.put("processed", state[0]);
+            job.progress(event);
+        }
+    }
+
     private boolean deleteRecursively(File file) {
         if (file.isDirectory()) {
             File[] children = file.listFiles();
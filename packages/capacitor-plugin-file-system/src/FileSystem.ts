@@ -1,5 +1,15 @@
 import { registerPlugin } from "@capacitor/core";
-import type { FileInfo, FileSystemPlugin, StorageType } from "./FileSystemPlugin";
+import type {
+  FileCacheStats,
+  FileCompressionOptions,
+  FileInfo,
+  FileReadOptions,
+  FileReadStreamOptions,
+  FileSystemJob,
+  FileSystemJobEvent,
+  FileSystemPlugin,
+  StorageType,
+} from "./FileSystemPlugin";
 import type { Bytes } from "@simplysm/core-common";
 import { bytes } from "@simplysm/core-common";
 
@@ -15,6 +25,9 @@ const fileSystemPlugin = registerPlugin<FileSystemPlugin>("FileSystem", {
  * - Android 11+: Full file system access via MANAGE_EXTERNAL_STORAGE permission
  * - Android 10-: READ/WRITE_EXTERNAL_STORAGE permission
  * - Browser: IndexedDB-based emulation
+ *
+ * readdir, readFile, writeFile and copy also accept content:// URIs (SAF documents and tree URIs),
+ * streamed natively through ContentResolver without copying through JS.
  */
 export abstract class FileSystem {
   /**
@@ -36,6 +49,7 @@ export abstract class FileSystem {
 
   /**
    * Read directory
+   * - For a content:// tree URI, each entry's `uri` can be passed to the other methods
    */
   static async readdir(dirPath: string): Promise<FileInfo[]> {
     const result = await fileSystemPlugin.readdir({ path: dirPath });
@@ -68,39 +82,94 @@ export abstract class FileSystem {
 
   /**
    * Write file
+   * @param options.compression Compress natively before writing (read back with the same option)
    */
-  static async writeFile(filePath: string, data: string | Bytes): Promise<void> {
+  static async writeFile(
+    filePath: string,
+    data: string | Bytes,
+    options?: FileCompressionOptions,
+  ): Promise<void> {
     if (typeof data !== "string") {
       // Bytes (Uint8Array) - works safely in cross-realm environments
       await fileSystemPlugin.writeFile({
         path: filePath,
         data: bytes.toBase64(data),
         encoding: "base64",
+        compression: options?.compression,
       });
     } else {
       await fileSystemPlugin.writeFile({
         path: filePath,
         data,
         encoding: "utf8",
+        compression: options?.compression,
       });
     }
   }
 
   /**
    * Read file (default: Bytes, with encoding "utf8": string)
+   * - Encoding and compression can also be passed together as one options object:
+   *   `readFile(path, { compression: "gzip" })`
+   * @param options.compression Decompress natively after reading
    */
-  static async readFile(filePath: string): Promise<Bytes>;
-  static async readFile(filePath: string, encoding: "utf8"): Promise<string>;
-  static async readFile(filePath: string, encoding?: "utf8"): Promise<string | Bytes> {
-    if (encoding === "utf8") {
-      const result = await fileSystemPlugin.readFile({ path: filePath, encoding: "utf8" });
+  static async readFile(
+    filePath: string,
+    encoding?: undefined,
+    options?: FileCompressionOptions,
+  ): Promise<Bytes>;
+  static async readFile(
+    filePath: string,
+    encoding: "utf8",
+    options?: FileCompressionOptions,
+  ): Promise<string>;
+  static async readFile(
+    filePath: string,
+    options: FileReadOptions & { encoding?: undefined },
+  ): Promise<Bytes>;
+  static async readFile(
+    filePath: string,
+    options: FileReadOptions & { encoding: "utf8" },
+  ): Promise<string>;
+  static async readFile(
+    filePath: string,
+    encodingOrOptions?: "utf8" | FileReadOptions,
+    compressionOptions?: FileCompressionOptions,
+  ): Promise<string | Bytes> {
+    const options: FileReadOptions =
+      typeof encodingOrOptions === "object"
+        ? encodingOrOptions
+        : { ...compressionOptions, encoding: encodingOrOptions };
+    if (options.encoding === "utf8") {
+      const result = await fileSystemPlugin.readFile({
+        path: filePath,
+        encoding: "utf8",
+        compression: options.compression,
+      });
       return result.data;
     } else {
-      const result = await fileSystemPlugin.readFile({ path: filePath, encoding: "base64" });
+      const result = await fileSystemPlugin.readFile({
+        path: filePath,
+        encoding: "base64",
+        compression: options.compression,
+      });
       return bytes.fromBase64(result.data);
     }
   }
 
+  /**
+   * Copy a file natively (file paths and content:// URIs in any combination)
+   * - If `to` is a directory (or a content:// tree URI), the copy is created inside it
+   *   under the source name
+   * - Rejects if the target is the source itself
+   * - A failed copy to a file path leaves the target untouched
+   * @returns Path or document URI of the written copy
+   */
+  static async copy(from: string, to: string): Promise<string> {
+    const result = await fileSystemPlugin.copy({ from, to });
+    return result.path;
+  }
+
   /**
    * Delete file/directory (recursive)
    */
@@ -108,6 +177,62 @@ export abstract class FileSystem {
     await fileSystemPlugin.remove({ path: targetPath });
   }
 
+  /**
+   * Delete file/directory (recursive) as a cancellable job
+   * - Cancelling stops between entries; whatever was already deleted stays deleted
+   * @param onProgress Called periodically with the number of deleted entries
+   * @returns Job handle; `done` rejects if an entry cannot be deleted
+   */
+  static async startRemove(
+    targetPath: string,
+    onProgress?: (processed: number) => void,
+  ): Promise<FileSystemJob> {
+    return FileSystem._startJob(
+      (callback) => fileSystemPlugin.startRemove({ path: targetPath }, callback),
+      (event) => {
+        if (event.type === "progress") {
+          onProgress?.(event.processed ?? 0);
+        }
+      },
+    );
+  }
+
+  /**
+   * Read a file as a cancellable stream of chunks (file paths and content:// URIs)
+   * - No size limit; native reading pauses while `window` chunks are still being handled,
+   *   and the next chunk is requested only after `onChunk` (and its returned promise) completes
+   * @param onChunk Called for each chunk in order (`total` is -1 if unknown)
+   * @returns Job handle; `done` rejects if the file is missing or reading fails
+   *
+   * @example
+   * ```ts
+   * const job = await FileSystem.readFileStream(path, async (chunk, progress) => {
+   *   await writer.write(chunk);
+   * });
+   *
+   * // On navigation
+   * await job.cancel();
+   * ```
+   */
+  static async readFileStream(
+    filePath: string,
+    onChunk: (chunk: Bytes, progress: { offset: number; total: number }) => void | Promise<void>,
+    options?: FileReadStreamOptions,
+  ): Promise<FileSystemJob> {
+    return FileSystem._startJob(
+      (callback) => fileSystemPlugin.readFileStream({ path: filePath, ...options }, callback),
+      async (event) => {
+        if (event.type === "chunk") {
+          await onChunk(bytes.fromBase64(event.data ?? ""), {
+            offset: event.offset ?? 0,
+            total: event.total ?? -1,
+          });
+          await fileSystemPlugin.ackJob({ id: event.id });
+        }
+      },
+    );
+  }
+
   /**
    * Create directory (recursive)
    */
@@ -122,4 +247,126 @@ export abstract class FileSystem {
     const result = await fileSystemPlugin.exists({ path: targetPath });
     return result.exists;
   }
+
+  /**
+   * Store an entry in the managed cache (replaces an existing entry with the same key)
+   * - Least recently used entries are evicted in the background once the byte budget is exceeded
+   * @param options.compression Store compressed; cacheGet decompresses automatically
+   */
+  static async cachePut(
+    key: string,
+    data: string | Bytes,
+    options?: FileCompressionOptions,
+  ): Promise<void> {
+    if (typeof data !== "string") {
+      await fileSystemPlugin.cachePut({
+        key,
+        data: bytes.toBase64(data),
+        encoding: "base64",
+        compression: options?.compression,
+      });
+    } else {
+      await fileSystemPlugin.cachePut({
+        key,
+        data,
+        encoding: "utf8",
+        compression: options?.compression,
+      });
+    }
+  }
+
+  /**
+   * Get a managed cache entry (default: Bytes, with encoding "utf8": string)
+   * @returns undefined on a miss
+   */
+  static async cacheGet(key: string): Promise<Bytes | undefined>;
+  static async cacheGet(key: string, encoding: "utf8"): Promise<string | undefined>;
+  static async cacheGet(key: string, encoding?: "utf8"): Promise<string | Bytes | undefined> {
+    if (encoding === "utf8") {
+      const result = await fileSystemPlugin.cacheGet({ key, encoding: "utf8" });
+      return result.hit ? result.data : undefined;
+    } else {
+      const result = await fileSystemPlugin.cacheGet({ key, encoding: "base64" });
+      return result.hit && result.data != null ? bytes.fromBase64(result.data) : undefined;
+    }
+  }
+
+  /**
+   * Remove a managed cache entry
+   * @returns Whether the entry existed
+   */
+  static async cacheEvict(key: string): Promise<boolean> {
+    const result = await fileSystemPlugin.cacheEvict({ key });
+    return result.evicted;
+  }
+
+  /**
+   * Remove every managed cache entry
+   */
+  static async cacheClear(): Promise<void> {
+    await fileSystemPlugin.cacheClear();
+  }
+
+  /**
+   * Set the managed cache byte budget (persisted, default 100MB)
+   */
+  static async cacheConfigure(options: { maxSize: number }): Promise<void> {
+    await fileSystemPlugin.cacheConfigure(options);
+  }
+
+  /**
+   * Managed cache size and hit/miss statistics
+   */
+  static async cacheStats(): Promise<FileCacheStats> {
+    return fileSystemPlugin.cacheStats();
+  }
+
+  private static async _startJob(
+    start: (
+      callback: (event: FileSystemJobEvent | undefined, err?: unknown) => void,
+    ) => Promise<{ id: string }>,
+    onEvent: (event: FileSystemJobEvent) => void | Promise<void>,
+  ): Promise<FileSystemJob> {
+    let settle: {
+      resolve: (status: "completed" | "cancelled") => void;
+      reject: (err: unknown) => void;
+    } = { resolve: () => {}, reject: () => {} };
+    const done = new Promise<"completed" | "cancelled">((resolve, reject) => {
+      settle = { resolve, reject };
+    });
+
+    // Events are handled one at a time, so done settles only after every event was handled
+    let queue = Promise.resolve();
+    let failed = false;
+    const { id } = await start((event, err) => {
+      queue = queue.then(async () => {
+        if (failed) return;
+        if (err != null || event == null) {
+          failed = true;
+          settle.reject(err);
+        } else if (event.type === "done") {
+          settle.resolve("completed");
+        } else if (event.type === "cancelled") {
+          settle.resolve("cancelled");
+        } else if (event.type != null) {
+          try {
+            await onEvent(event);
+          } catch (eventErr) {
+            failed = true;
+            settle.reject(eventErr);
+            await fileSystemPlugin.cancelJob({ id: event.id });
+          }
+        }
+        // The initial resolve only contains { id }
+      });
+    });
+
+    return {
+      id,
+      done,
+      cancel: async () => {
+        await fileSystemPlugin.cancelJob({ id });
+      },
+    };
+  }
 }
@@ -7,9 +7,69 @@ export type StorageType =
   | "appFiles"
   | "appCache";
 
+/**
+ * On-disk compression
+ * - gzip: RFC 1952
+ * - deflate: zlib format (RFC 1950)
+ */
+export type FileCompression = "gzip" | "deflate";
+
+export interface FileCompressionOptions {
+  compression?: FileCompression;
+}
+
+export interface FileReadOptions extends FileCompressionOptions {
+  /** "utf8": read as string (default: Bytes) */
+  encoding?: "utf8";
+}
+
+export interface FileCacheStats {
+  /** Number of entries */
+  count: number;
+  /** Total size on disk (bytes, after compression) */
+  size: number;
+  /** Byte budget */
+  maxSize: number;
+  /** cacheGet hits since app start */
+  hits: number;
+  /** cacheGet misses since app start */
+  misses: number;
+  /** Entries evicted to stay within the budget since app start */
+  evictions: number;
+}
+
+export interface FileReadStreamOptions extends FileCompressionOptions {
+  /** Bytes per chunk (default 512KB) */
+  chunkSize?: number;
+  /** Chunks that may be unacknowledged before native reading pauses (default 4) */
+  window?: number;
+}
+
+export interface FileSystemJobEvent {
+  id: string;
+  type?: "progress" | "chunk" | "done" | "cancelled";
+  /** progress, done (startRemove): number of deleted entries */
+  processed?: number;
+  /** chunk: Base64 data */
+  data?: string;
+  /** chunk: position of the chunk in the (decompressed) file */
+  offset?: number;
+  /** chunk: file size, or -1 if unknown (compressed, or not reported by the provider) */
+  total?: number;
+}
+
+export interface FileSystemJob {
+  id: string;
+  /** Settles when the job ends: "completed" or "cancelled", or rejects with the failure */
+  done: Promise<"completed" | "cancelled">;
+  cancel(): Promise<void>;
+}
+
 export interface FileInfo {
   name: string;
   isDirectory: boolean;
+  /** Document URI of the entry (only when listing a content:// tree URI) */
+  uri?: string;
 }
 
 export interface FileSystemPlugin {
@@ -18,9 +78,35 @@ export interface FileSystemPlugin {
   readdir(options: { path: string }): Promise<{ files: FileInfo[] }>;
   getStoragePath(options: { type: StorageType }): Promise<{ path: string }>;
   getUri(options: { path: string }): Promise<{ uri: string }>;
-  writeFile(options: { path: string; data: string; encoding?: "utf8" | "base64" }): Promise<void>;
-  readFile(options: { path: string; encoding?: "utf8" | "base64" }): Promise<{ data: string }>;
+  writeFile(
+    options: { path: string; data: string; encoding?: "utf8" | "base64" } & FileCompressionOptions,
+  ): Promise<void>;
+  readFile(
+    options: { path: string; encoding?: "utf8" | "base64" } & FileCompressionOptions,
+  ): Promise<{ data: string }>;
+  copy(options: { from: string; to: string }): Promise<{ path: string; size: number }>;
   remove(options: { path: string }): Promise<void>;
+  startRemove(
+    options: { path: string },
+    callback: (event: FileSystemJobEvent | undefined, err?: unknown) => void,
+  ): Promise<{ id: string }>;
+  readFileStream(
+    options: { path: string } & FileReadStreamOptions,
+    callback: (event: FileSystemJobEvent | undefined, err?: unknown) => void,
+  ): Promise<{ id: string }>;
+  cancelJob(options: { id: string }): Promise<void>;
+  ackJob(options: { id: string }): Promise<void>;
   mkdir(options: { path: string }): Promise<void>;
   exists(options: { path: string }): Promise<{ exists: boolean }>;
+  cachePut(
+    options: { key: string; data: string; encoding?: "utf8" | "base64" } & FileCompressionOptions,
+  ): Promise<void>;
+  cacheGet(options: {
+    key: string;
+    encoding?: "utf8" | "base64";
+  }): Promise<{ hit: boolean; data?: string }>;
+  cacheEvict(options: { key: string }): Promise<{ evicted: boolean }>;
+  cacheClear(): Promise<void>;
+  cacheConfigure(options: { maxSize: number }): Promise<void>;
+  cacheStats(): Promise<FileCacheStats>;
 }
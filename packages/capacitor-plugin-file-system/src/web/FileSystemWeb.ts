@@ -1,5 +1,13 @@
 import { WebPlugin } from "@capacitor/core";
-import type { FileInfo, FileSystemPlugin, StorageType } from "../FileSystemPlugin";
+import type {
+  FileCacheStats,
+  FileCompressionOptions,
+  FileInfo,
+  FileReadStreamOptions,
+  FileSystemJobEvent,
+  FileSystemPlugin,
+  StorageType,
+} from "../FileSystemPlugin";
 import { VirtualFileSystem } from "./VirtualFileSystem";
 import { bytes } from "@simplysm/core-common";
 
@@ -8,6 +16,22 @@ export class FileSystemWeb extends WebPlugin implements FileSystemPlugin {
   private readonly _textEncoder = new TextEncoder();
   private readonly _textDecoder = new TextDecoder();
 
+  // Managed cache: in-memory only on web; Map insertion order doubles as LRU order
+  private readonly _cache = new Map<string, Uint8Array>();
+  private readonly _cacheStats: FileCacheStats = {
+    count: 0,
+    size: 0,
+    maxSize: 100 * 1024 * 1024,
+    hits: 0,
+    misses: 0,
+    evictions: 0,
+  };
+
+  private readonly _jobs = new Map<
+    string,
+    { cancelled: boolean; unacknowledged: number; wake?: () => void }
+  >();
+
   async checkPermissions(): Promise<{ granted: boolean }> {
     return Promise.resolve({ granted: true });
   }
@@ -44,36 +68,66 @@ export class FileSystemWeb extends WebPlugin implements FileSystemPlugin {
     return { uri: URL.createObjectURL(blob) };
   }
 
-  async writeFile(options: {
-    path: string;
-    data: string;
-    encoding?: "utf8" | "base64";
-  }): Promise<void> {
+  async writeFile(
+    options: {
+      path: string;
+      data: string;
+      encoding?: "utf8" | "base64";
+    } & FileCompressionOptions,
+  ): Promise<void> {
     const idx = options.path.lastIndexOf("/");
     const dir = idx === -1 ? "." : options.path.substring(0, idx) || "/";
     await this._fs.ensureDir(dir);
-    const dataBase64 =
+    let data =
       options.encoding === "base64"
-        ? options.data
-        : bytes.toBase64(this._textEncoder.encode(options.data));
-    await this._fs.putEntry({ path: options.path, kind: "file", dataBase64 });
+        ? bytes.fromBase64(options.data)
+        : this._textEncoder.encode(options.data);
+    if (options.compression != null) {
+      data = await this._transform(data, new CompressionStream(options.compression));
+    }
+    await this._fs.putEntry({
+      path: options.path,
+      kind: "file",
+      dataBase64: bytes.toBase64(data),
+    });
   }
 
-  async readFile(options: {
-    path: string;
-    encoding?: "utf8" | "base64";
-  }): Promise<{ data: string }> {
+  async readFile(
+    options: {
+      path: string;
+      encoding?: "utf8" | "base64";
+    } & FileCompressionOptions,
+  ): Promise<{ data: string }> {
     const entry = await this._fs.getEntry(options.path);
     if (!entry || entry.kind !== "file" || entry.dataBase64 == null) {
       throw new Error("File not found: " + options.path);
     }
+    let raw = bytes.fromBase64(entry.dataBase64);
+    if (options.compression != null) {
+      raw = await this._transform(raw, new DecompressionStream(options.compression));
+    }
     const data =
-      options.encoding === "base64"
-        ? entry.dataBase64
-        : this._textDecoder.decode(bytes.fromBase64(entry.dataBase64));
+      options.encoding === "base64" ? bytes.toBase64(raw) : this._textDecoder.decode(raw);
     return { data };
   }
 
+  async copy(options: { from: string; to: string }): Promise<{ path: string; size: number }> {
+    const source = await this._fs.getEntry(options.from);
+    if (!source || source.kind !== "file" || source.dataBase64 == null) {
+      throw new Error("File not found: " + options.from);
+    }
+
+    const target = await this._fs.getEntry(options.to);
+    const targetPath =
+      target?.kind === "dir"
+        ? options.to + "/" + options.from.substring(options.from.lastIndexOf("/") + 1)
+        : options.to;
+    const idx = targetPath.lastIndexOf("/");
+    await this._fs.ensureDir(idx === -1 ? "." : targetPath.substring(0, idx) || "/");
+    await this._fs.putEntry({ path: targetPath, kind: "file", dataBase64: source.dataBase64 });
+    return { path: targetPath, size: bytes.fromBase64(source.dataBase64).length };
+  }
+
   async remove(options: { path: string }): Promise<void> {
     const ok = await this._fs.deleteByPrefix(options.path);
     if (!ok) {
@@ -81,6 +135,86 @@ export class FileSystemWeb extends WebPlugin implements FileSystemPlugin {
     }
   }
 
+  /**
+   * The virtual file system deletes by prefix in one step, so no progress events are emitted.
+   */
+  async startRemove(
+    options: { path: string },
+    callback: (event: FileSystemJobEvent | undefined, err?: unknown) => void,
+  ): Promise<{ id: string }> {
+    const id = crypto.randomUUID();
+    void (async () => {
+      try {
+        await this.remove(options);
+        callback({ id, type: "done" });
+      } catch (err) {
+        callback(undefined, err);
+      }
+    })();
+    return Promise.resolve({ id });
+  }
+
+  async readFileStream(
+    options: { path: string } & FileReadStreamOptions,
+    callback: (event: FileSystemJobEvent | undefined, err?: unknown) => void,
+  ): Promise<{ id: string }> {
+    const id = crypto.randomUUID();
+    const job: { cancelled: boolean; unacknowledged: number; wake?: () => void } = {
+      cancelled: false,
+      unacknowledged: 0,
+    };
+    this._jobs.set(id, job);
+
+    void (async () => {
+      try {
+        const { data } = await this.readFile({ ...options, encoding: "base64" });
+        const content = bytes.fromBase64(data);
+        const chunkSize = Math.max(1, options.chunkSize ?? 512 * 1024);
+        const window = Math.max(1, options.window ?? 4);
+
+        for (let offset = 0; offset < content.length && !job.cancelled; offset += chunkSize) {
+          while (job.unacknowledged >= window && !job.cancelled) {
+            await new Promise<void>((resolve) => (job.wake = resolve));
+          }
+          if (job.cancelled) break;
+          job.unacknowledged++;
+          callback({
+            id,
+            type: "chunk",
+            data: bytes.toBase64(content.subarray(offset, offset + chunkSize)),
+            offset,
+            total: options.compression != null ? -1 : content.length,
+          });
+        }
+        callback({ id, type: job.cancelled ? "cancelled" : "done" });
+      } catch (err) {
+        callback(undefined, err);
+      } finally {
+        this._jobs.delete(id);
+      }
+    })();
+
+    return Promise.resolve({ id });
+  }
+
+  async cancelJob(options: { id: string }): Promise<void> {
+    const job = this._jobs.get(options.id);
+    if (job != null) {
+      job.cancelled = true;
+      job.wake?.();
+    }
+    return Promise.resolve();
+  }
+
+  async ackJob(options: { id: string }): Promise<void> {
+    const job = this._jobs.get(options.id);
+    if (job != null) {
+      job.unacknowledged = Math.max(0, job.unacknowledged - 1);
+      job.wake?.();
+    }
+    return Promise.resolve();
+  }
+
   async mkdir(options: { path: string }): Promise<void> {
     await this._fs.ensureDir(options.path);
   }
@@ -89,4 +223,89 @@ export class FileSystemWeb extends WebPlugin implements FileSystemPlugin {
     const entry = await this._fs.getEntry(options.path);
     return { exists: !!entry };
   }
+
+  async cachePut(
+    options: {
+      key: string;
+      data: string;
+      encoding?: "utf8" | "base64";
+    } & FileCompressionOptions,
+  ): Promise<void> {
+    const data =
+      options.encoding === "base64"
+        ? bytes.fromBase64(options.data)
+        : this._textEncoder.encode(options.data);
+    this._cacheRemove(options.key);
+    this._cache.set(options.key, data);
+    this._cacheStats.size += data.length;
+    this._cacheTrim();
+    return Promise.resolve();
+  }
+
+  async cacheGet(options: {
+    key: string;
+    encoding?: "utf8" | "base64";
+  }): Promise<{ hit: boolean; data?: string }> {
+    const data = this._cache.get(options.key);
+    if (data == null) {
+      this._cacheStats.misses++;
+      return Promise.resolve({ hit: false });
+    }
+    this._cacheStats.hits++;
+    // Move to the most recently used end
+    this._cache.delete(options.key);
+    this._cache.set(options.key, data);
+    return Promise.resolve({
+      hit: true,
+      data: options.encoding === "base64" ? bytes.toBase64(data) : this._textDecoder.decode(data),
+    });
+  }
+
+  async cacheEvict(options: { key: string }): Promise<{ evicted: boolean }> {
+    const evicted = this._cacheRemove(options.key);
+    this._cacheStats.count = this._cache.size;
+    return Promise.resolve({ evicted });
+  }
+
+  async cacheClear(): Promise<void> {
+    this._cache.clear();
+    this._cacheStats.count = 0;
+    this._cacheStats.size = 0;
+    return Promise.resolve();
+  }
+
+  async cacheConfigure(options: { maxSize: number }): Promise<void> {
+    this._cacheStats.maxSize = options.maxSize;
+    this._cacheTrim();
+    return Promise.resolve();
+  }
+
+  async cacheStats(): Promise<FileCacheStats> {
+    return Promise.resolve({ ...this._cacheStats });
+  }
+
+  private _cacheTrim(): void {
+    for (const [key] of this._cache) {
+      if (this._cacheStats.size <= this._cacheStats.maxSize) break;
+      this._cacheRemove(key);
+      this._cacheStats.evictions++;
+    }
+    this._cacheStats.count = this._cache.size;
+  }
+
+  private _cacheRemove(key: string): boolean {
+    const data = this._cache.get(key);
+    if (data == null) return false;
+    this._cache.delete(key);
+    this._cacheStats.size -= data.length;
+    return true;
+  }
+
+  private async _transform(
+    data: Uint8Array,
+    stream: CompressionStream | DecompressionStream,
+  ): Promise<Uint8Array> {
+    const transformed = new Blob([data as BlobPart]).stream().pipeThrough(stream);
+    return new Uint8Array(await new Response(transformed).arrayBuffer());
+  }
 }
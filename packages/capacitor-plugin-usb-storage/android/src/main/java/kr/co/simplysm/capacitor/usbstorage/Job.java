@@ -0,0 +1,117 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import android.util.Log;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+/**
+ * Long-running operation reported through a keep-alive call, so it can stream progress and be cancelled.
+ * - The first resolve carries only {id}; later resolves are events with a "type"
+ * - Ends with a "done" event (carrying the work's result) or a "cancelled" event, or a reject on failure;
+ *   the call is then released
+ * - "chunk" events are credit-based: once `window` of them are unacknowledged, emitChunk blocks until the
+ *   consumer acknowledges (ack), so a slow WebView makes the work wait instead of piling up bridge messages
+ */
+class Job {
+
+    private static final String TAG = "UsbStorageJob";
+
+    interface Work {
+        /**
+         * @return Fields for the "done" event, or null
+         */
+        JSObject run(Job job) throws Exception;
+    }
+
+    static class CancelledException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        CancelledException() {
+            super("cancelled");
+        }
+    }
+
+    final String id;
+    private final String name;
+    private final PluginCall call;
+    private final Bridge bridge;
+    private final int window;
+
+    private int unacknowledged; // guarded by this
+    private volatile boolean cancelled;
+
+    Job(String id, String name, PluginCall call, Bridge bridge, int window) {
+        this.id = id;
+        this.name = name;
+        this.call = call;
+        this.bridge = bridge;
+        this.window = Math.max(1, window);
+    }
+
+    /**
+     * Runs the work on the calling thread and reports how it ended.
+     */
+    void run(Work work) {
+        try {
+            throwIfCancelled();
+            JSObject result = work.run(this);
+            emit("done", result != null ? result : new JSObject());
+        } catch (CancelledException e) {
+            emit("cancelled", new JSObject());
+        } catch (Exception e) {
+            if (cancelled) {
+                emit("cancelled", new JSObject());
+            } else {
+                Log.e(TAG, name + " failed", e);
+                call.reject(name + " failed: " + e.getMessage());
+            }
+        } finally {
+            bridge.releaseCall(call);
+        }
+    }
+
+    void throwIfCancelled() throws CancelledException {
+        if (cancelled) {
+            throw new CancelledException();
+        }
+    }
+
+    void progress(JSObject event) throws CancelledException {
+        throwIfCancelled();
+        emit("progress", event);
+    }
+
+    /**
+     * Blocks while the acknowledgement window is full.
+     */
+    void emitChunk(JSObject event) throws CancelledException, InterruptedException {
+        synchronized (this) {
+            while (unacknowledged >= window && !cancelled) {
+                wait();
+            }
+            throwIfCancelled();
+            unacknowledged++;
+        }
+        emit("chunk", event);
+    }
+
+    synchronized void ack() {
+        if (unacknowledged > 0) {
+            unacknowledged--;
+        }
+        notifyAll();
+    }
+
+    synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+
+    private void emit(String type, JSObject event) {
+        event.put("id", id);
+        event.put("type", type);
+        call.resolve(event);
+    }
+}
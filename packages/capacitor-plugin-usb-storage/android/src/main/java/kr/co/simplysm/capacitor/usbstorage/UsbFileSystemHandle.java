@@ -0,0 +1,13 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import java.io.Closeable;
+
+import me.jahnen.libaums.core.fs.FileSystem;
+
+/**
+ * An opened USB storage file system. Closing it releases the underlying device.
+ */
+public interface UsbFileSystemHandle extends Closeable {
+
+    FileSystem getFileSystem();
+}
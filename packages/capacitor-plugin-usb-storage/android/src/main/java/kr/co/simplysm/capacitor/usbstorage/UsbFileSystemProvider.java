@@ -0,0 +1,14 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+/**
+ * Opens the file system of a USB storage device.
+ * The plugin uses libaums mass storage devices; tests can supply an in-memory block device instead.
+ */
+public interface UsbFileSystemProvider {
+
+    /**
+     * Look up the device and open its first partition.
+     * The returned handle must be closed to release the device.
+     */
+    UsbFileSystemHandle open(int vendorId, int productId) throws Exception;
+}
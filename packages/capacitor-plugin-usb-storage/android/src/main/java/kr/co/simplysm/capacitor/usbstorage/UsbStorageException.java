@@ -0,0 +1,15 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import java.io.IOException;
+
+/**
+ * A failure whose message is meant for the caller as is (rejected without the "x failed: " prefix).
+ */
+public class UsbStorageException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UsbStorageException(String message) {
+        super(message);
+    }
+}
@@ -8,6 +8,9 @@ import android.content.IntentFilter;
 import android.hardware.usb.UsbDevice;
 import android.hardware.usb.UsbManager;
 import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 import android.util.Base64;
 import android.util.Log;
 
@@ -18,38 +21,101 @@ import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
 
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.Optional;
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import me.jahnen.libaums.core.UsbMassStorageDevice;
 import me.jahnen.libaums.core.fs.FileSystem;
-import me.jahnen.libaums.core.fs.UsbFile;
-import me.jahnen.libaums.core.fs.UsbFileInputStream;
 
 @CapacitorPlugin(name = "UsbStorage")
 public class UsbStoragePlugin extends Plugin {
 
     private static final String TAG = "UsbStoragePlugin";
     private static final String ACTION_USB_PERMISSION = "kr.co.simplysm.capacitor.usbstorage.USB_PERMISSION";
-    private static final long MAX_FILE_SIZE = 100L * 1024 * 1024; // 100MB
+    private static final int DEFAULT_STREAM_CHUNK_SIZE = 512 * 1024;
+    private static final int DEFAULT_JOB_WINDOW = 4;
+
+    // Mass storage devices keyed by device name (two sticks of the same model are distinct), refreshed on
+    // attach/detach, plus the first device per "vendorId:productId" for the vid/pid based calls.
+    // Both are immutable snapshots replaced together under this plugin's monitor, so reads need no lock.
+    private volatile Map<String, UsbMassStorageDevice> devices = Collections.emptyMap();
+    private volatile Map<String, UsbMassStorageDevice> devicesByVidPid = Collections.emptyMap();
+    private final Map<String, PluginCall> watchers = new ConcurrentHashMap<>();
+    private BroadcastReceiver hotPlugReceiver;
+
+    private final UsbStorageReader reader = new UsbStorageReader(new MassStorageFileSystemProvider());
+
+    // readdir/readFile run here, off the plugin thread. Device access itself is serialized by the reader.
+    private HandlerThread ioThread;
+    private Handler io;
+    // Streams wait for acks between chunks, so each gets its own thread instead of blocking the io queue
+    private final ExecutorService streamExecutor = Executors.newCachedThreadPool();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Override
+    public void load() {
+        super.load();
+        ioThread = new HandlerThread("UsbStorageIO", Process.THREAD_PRIORITY_BACKGROUND);
+        ioThread.start();
+        io = new Handler(ioThread.getLooper());
+        refreshDevices();
+
+        hotPlugReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                UsbDevice usbDevice = intent.getParcelableExtra(UsbManager.EXTRA_DEVICE);
+                if (usbDevice == null) {
+                    return;
+                }
+
+                String type;
+                if (UsbManager.ACTION_USB_DEVICE_ATTACHED.equals(intent.getAction())) {
+                    refreshDevices();
+                    if (!devices.containsKey(usbDevice.getDeviceName())) {
+                        return;
+                    }
+                    type = "attached";
+                } else {
+                    if (!removeDevice(usbDevice.getDeviceName())) {
+                        return;
+                    }
+                    type = "detached";
+                }
+
+                for (Map.Entry<String, PluginCall> entry : watchers.entrySet()) {
+                    JSObject event = new JSObject();
+                    event.put("id", entry.getKey());
+                    event.put("type", type);
+                    event.put("device", toDeviceJson(usbDevice));
+                    entry.getValue().resolve(event);
+                }
+            }
+        };
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(UsbManager.ACTION_USB_DEVICE_ATTACHED);
+        filter.addAction(UsbManager.ACTION_USB_DEVICE_DETACHED);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            getContext().registerReceiver(hotPlugReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
+        } else {
+            getContext().registerReceiver(hotPlugReceiver, filter);
+        }
+    }
 
     @PluginMethod
     public void getDevices(PluginCall call) {
         try {
-            UsbMassStorageDevice[] devices = UsbMassStorageDevice.getMassStorageDevices(getContext());
-
             JSArray result = new JSArray();
-            for (UsbMassStorageDevice device : devices) {
-                UsbDevice usbDevice = device.getUsbDevice();
-
-                JSObject deviceObj = new JSObject();
-                deviceObj.put("deviceName", usbDevice.getDeviceName());
-                deviceObj.put("manufacturerName", usbDevice.getManufacturerName());
-                deviceObj.put("productName", usbDevice.getProductName());
-                deviceObj.put("vendorId", usbDevice.getVendorId());
-                deviceObj.put("productId", usbDevice.getProductId());
-                result.put(deviceObj);
+            for (UsbMassStorageDevice device : devices.values()) {
+                result.put(toDeviceJson(device.getUsbDevice()));
             }
 
             JSObject ret = new JSObject();
@@ -61,6 +127,38 @@ public class UsbStoragePlugin extends Plugin {
         }
     }
 
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void watchDevices(PluginCall call) {
+        try {
+            call.setKeepAlive(true);
+
+            String watcherId = UUID.randomUUID().toString();
+            watchers.put(watcherId, call);
+
+            JSObject ret = new JSObject();
+            ret.put("id", watcherId);
+            call.resolve(ret);
+        } catch (Exception e) {
+            Log.e(TAG, "watchDevices failed", e);
+            call.reject("watchDevices failed: " + e.getMessage());
+        }
+    }
+
+    @PluginMethod
+    public void unwatchDevices(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null) {
+            call.reject("id is required");
+            return;
+        }
+
+        PluginCall watcher = watchers.remove(id);
+        if (watcher != null) {
+            getBridge().releaseCall(watcher);
+        }
+        call.resolve();
+    }
+
     @PluginMethod
     public void requestPermissions(PluginCall call) {
         Integer vendorId = call.getInt("vendorId");
@@ -154,46 +252,32 @@ public class UsbStoragePlugin extends Plugin {
             return;
         }
 
-        try {
-            UsbMassStorageDevice device = getDevice(vendorId, productId);
-
-            UsbManager usbManager = (UsbManager) getContext().getSystemService(Context.USB_SERVICE);
-            if (!usbManager.hasPermission(device.getUsbDevice())) {
-                call.reject("No permission for this USB device");
-                return;
-            }
-
-            device.init();
+        io.post(() -> {
             try {
-                FileSystem fs = device.getPartitions().get(0).getFileSystem();
-                UsbFile root = fs.getRootDirectory();
-                UsbFile dir = root.search(path);
-
-                if (dir == null || !dir.isDirectory()) {
+                List<UsbStorageReader.Entry> entries = reader.readdir(vendorId, productId, path);
+                if (entries == null) {
                     call.reject("Directory not found: " + path);
                     return;
                 }
 
-                UsbFile[] files = dir.listFiles();
-
                 JSArray result = new JSArray();
-                for (UsbFile file : files) {
+                for (UsbStorageReader.Entry entry : entries) {
                     JSObject info = new JSObject();
-                    info.put("name", file.getName());
-                    info.put("isDirectory", file.isDirectory());
+                    info.put("name", entry.name);
+                    info.put("isDirectory", entry.isDirectory);
                     result.put(info);
                 }
 
                 JSObject ret = new JSObject();
                 ret.put("files", result);
                 call.resolve(ret);
-            } finally {
-                device.close();
+            } catch (UsbStorageException e) {
+                call.reject(e.getMessage());
+            } catch (Exception e) {
+                Log.e(TAG, "readdir failed", e);
+                call.reject("readdir failed: " + e.getMessage());
             }
-        } catch (Exception e) {
-            Log.e(TAG, "readdir failed", e);
-            call.reject("readdir failed: " + e.getMessage());
-        }
+        });
     }
 
     @PluginMethod
@@ -207,72 +291,232 @@ public class UsbStoragePlugin extends Plugin {
             return;
         }
 
-        try {
-            UsbMassStorageDevice device = getDevice(vendorId, productId);
+        io.post(() -> {
+            try {
+                byte[] data = reader.readFile(vendorId, productId, path, 0);
 
-            UsbManager usbManager = (UsbManager) getContext().getSystemService(Context.USB_SERVICE);
-            if (!usbManager.hasPermission(device.getUsbDevice())) {
-                call.reject("No permission for this USB device");
-                return;
+                JSObject ret = new JSObject();
+                ret.put("data", data == null ? null : Base64.encodeToString(data, Base64.NO_WRAP));
+                call.resolve(ret);
+            } catch (UsbStorageException e) {
+                call.reject(e.getMessage());
+            } catch (Exception e) {
+                Log.e(TAG, "readFile failed", e);
+                call.reject("readFile failed: " + e.getMessage());
             }
+        });
+    }
 
-            device.init();
-            try {
-                FileSystem fs = device.getPartitions().get(0).getFileSystem();
-                UsbFile root = fs.getRootDirectory();
-                UsbFile usbFile = root.search(path);
+    /**
+     * Job variant of readFile without the size limit: the file is sent as "chunk" events
+     * ({data, offset, total}), each of which must be acknowledged with ackJob.
+     */
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void readFileStream(PluginCall call) {
+        Integer vendorId = call.getInt("vendorId");
+        Integer productId = call.getInt("productId");
+        String path = call.getString("path");
+        int chunkSize = call.getInt("chunkSize", DEFAULT_STREAM_CHUNK_SIZE);
+        int window = call.getInt("window", DEFAULT_JOB_WINDOW);
 
-                if (usbFile == null) {
-                    JSObject ret = new JSObject();
-                    ret.put("data", (String) null);
-                    call.resolve(ret);
-                    return;
-                }
+        if (vendorId == null || productId == null || path == null) {
+            call.reject("vendorId, productId, and path are required");
+            return;
+        }
 
-                if (usbFile.isDirectory()) {
-                    call.reject("Path is a directory: " + path);
-                    return;
+        Job job = startJob(call, "readFileStream", window);
+        streamExecutor.execute(() -> {
+            job.run(j -> {
+                boolean found = reader.readFile(vendorId, productId, path, chunkSize, (data, length, offset, total) -> {
+                    JSObject event = new JSObject();
+                    event.put("data", Base64.encodeToString(data, 0, length, Base64.NO_WRAP));
+                    event.put("offset", offset);
+                    event.put("total", total);
+                    j.emitChunk(event);
+                });
+                if (!found) {
+                    throw new FileNotFoundException("File not found: " + path);
                 }
+                return null;
+            });
+            jobs.remove(job.id);
+        });
+    }
 
-                long fileLength = usbFile.getLength();
-                if (fileLength > MAX_FILE_SIZE) {
-                    call.reject("File too large: " + fileLength + " bytes (max " + MAX_FILE_SIZE + ")");
-                    return;
-                }
-                ByteBuffer buffer = ByteBuffer.allocate((int) fileLength);
+    @PluginMethod
+    public void cancelJob(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null) {
+            call.reject("id is required");
+            return;
+        }
 
-                UsbFileInputStream inputStream = new UsbFileInputStream(usbFile);
-                byte[] tmpBuf = new byte[fs.getChunkSize()];
-                int count;
-                while ((count = inputStream.read(tmpBuf)) != -1) {
-                    buffer.put(tmpBuf, 0, count);
-                }
-                inputStream.close();
+        // An unknown id has already finished
+        Job job = jobs.get(id);
+        if (job != null) {
+            job.cancel();
+        }
+        call.resolve();
+    }
 
-                String base64Data = Base64.encodeToString(buffer.array(), Base64.NO_WRAP);
+    @PluginMethod
+    public void ackJob(PluginCall call) {
+        String id = call.getString("id");
+        if (id == null) {
+            call.reject("id is required");
+            return;
+        }
 
-                JSObject ret = new JSObject();
-                ret.put("data", base64Data);
-                call.resolve(ret);
-            } finally {
-                device.close();
+        Job job = jobs.get(id);
+        if (job != null) {
+            job.ack();
+        }
+        call.resolve();
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        if (hotPlugReceiver != null) {
+            try {
+                getContext().unregisterReceiver(hotPlugReceiver);
+            } catch (Exception ignored) {
             }
-        } catch (Exception e) {
-            Log.e(TAG, "readFile failed", e);
-            call.reject("readFile failed: " + e.getMessage());
+            hotPlugReceiver = null;
+        }
+        for (PluginCall watcher : watchers.values()) {
+            getBridge().releaseCall(watcher);
+        }
+        watchers.clear();
+        for (Job job : jobs.values()) {
+            job.cancel();
+        }
+        jobs.clear();
+        streamExecutor.shutdown();
+        if (ioThread != null) {
+            ioThread.quitSafely();
+            ioThread = null;
+        }
+        synchronized (this) {
+            setDevices(Collections.emptyMap());
         }
+        super.handleOnDestroy();
+    }
+
+    private Job startJob(PluginCall call, String name, int window) {
+        call.setKeepAlive(true);
+        Job job = new Job(UUID.randomUUID().toString(), name, call, getBridge(), window);
+        jobs.put(job.id, job);
+
+        JSObject ret = new JSObject();
+        ret.put("id", job.id);
+        call.resolve(ret);
+        return job;
     }
 
     private UsbMassStorageDevice getDevice(int vendorId, int productId) throws Exception {
-        UsbMassStorageDevice[] devices = UsbMassStorageDevice.getMassStorageDevices(getContext());
-        Optional<UsbMassStorageDevice> optDevice = Arrays.stream(devices).filter((tmpDevice) -> {
-            UsbDevice tmpUsbDevice = tmpDevice.getUsbDevice();
-            return tmpUsbDevice.getVendorId() == vendorId && tmpUsbDevice.getProductId() == productId;
-        }).findFirst();
+        String key = toDeviceKey(vendorId, productId);
+        UsbMassStorageDevice device = devicesByVidPid.get(key);
+        if (device == null) {
+            // A hot-plug broadcast may have been missed (e.g. device attached before load)
+            refreshDevices();
+            device = devicesByVidPid.get(key);
+        }
 
-        if (!optDevice.isPresent()) {
+        if (device == null) {
             throw new Exception("USB device not found: vendorId=" + vendorId + ", productId=" + productId);
         }
-        return optDevice.get();
+        return device;
+    }
+
+    private synchronized void refreshDevices() {
+        try {
+            UsbMassStorageDevice[] found = UsbMassStorageDevice.getMassStorageDevices(getContext());
+
+            Map<String, UsbMassStorageDevice> next = new LinkedHashMap<>();
+            for (UsbMassStorageDevice device : found) {
+                String name = device.getUsbDevice().getDeviceName();
+                // Keep existing instances so an in-flight init()/close() is not orphaned
+                UsbMassStorageDevice existing = devices.get(name);
+                next.put(name, existing != null ? existing : device);
+            }
+            setDevices(next);
+        } catch (Exception e) {
+            Log.e(TAG, "refreshDevices failed", e);
+        }
+    }
+
+    /**
+     * @return Whether the device was registered
+     */
+    private synchronized boolean removeDevice(String deviceName) {
+        if (!devices.containsKey(deviceName)) {
+            return false;
+        }
+        Map<String, UsbMassStorageDevice> next = new LinkedHashMap<>(devices);
+        next.remove(deviceName);
+        setDevices(next);
+        return true;
+    }
+
+    /**
+     * Publishes a new registry snapshot. Call with this plugin's monitor held.
+     */
+    private void setDevices(Map<String, UsbMassStorageDevice> next) {
+        Map<String, UsbMassStorageDevice> byVidPid = new HashMap<>();
+        for (UsbMassStorageDevice device : next.values()) {
+            UsbDevice usbDevice = device.getUsbDevice();
+            String key = toDeviceKey(usbDevice.getVendorId(), usbDevice.getProductId());
+            if (!byVidPid.containsKey(key)) {
+                byVidPid.put(key, device);
+            }
+        }
+        devices = Collections.unmodifiableMap(next);
+        devicesByVidPid = byVidPid;
+    }
+
+    private class MassStorageFileSystemProvider implements UsbFileSystemProvider {
+
+        @Override
+        public UsbFileSystemHandle open(int vendorId, int productId) throws Exception {
+            UsbMassStorageDevice device = getDevice(vendorId, productId);
+
+            UsbManager usbManager = (UsbManager) getContext().getSystemService(Context.USB_SERVICE);
+            if (!usbManager.hasPermission(device.getUsbDevice())) {
+                throw new UsbStorageException("No permission for this USB device");
+            }
+
+            device.init();
+            try {
+                FileSystem fs = device.getPartitions().get(0).getFileSystem();
+                return new UsbFileSystemHandle() {
+                    @Override
+                    public FileSystem getFileSystem() {
+                        return fs;
+                    }
+
+                    @Override
+                    public void close() {
+                        device.close();
+                    }
+                };
+            } catch (Exception e) {
+                device.close();
+                throw e;
+            }
+        }
+    }
+
+    private static String toDeviceKey(int vendorId, int productId) {
+        return vendorId + ":" + productId;
+    }
+
+    private static JSObject toDeviceJson(UsbDevice usbDevice) {
+        JSObject deviceObj = new JSObject();
+        deviceObj.put("deviceName", usbDevice.getDeviceName());
+        deviceObj.put("manufacturerName", usbDevice.getManufacturerName());
+        deviceObj.put("productName", usbDevice.getProductName());
+        deviceObj.put("vendorId", usbDevice.getVendorId());
+        deviceObj.put("productId", usbDevice.getProductId());
+        return deviceObj;
     }
 }
@@ -0,0 +1,206 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.jahnen.libaums.core.fs.FileSystem;
+import me.jahnen.libaums.core.fs.UsbFile;
+
+/**
+ * Directory listing and file reading on top of a {@link UsbFileSystemProvider}.
+ * Free of Android APIs so it can be exercised on a plain JVM.
+ * Device access is serialized on one lock, and an opened file system is shared by concurrent operations
+ * (a device can only be opened once). A streaming read holds the lock only while reading each chunk, so
+ * other operations proceed while its sink waits.
+ */
+public class UsbStorageReader {
+
+    public static final long MAX_FILE_SIZE = 100L * 1024 * 1024; // 100MB
+
+    private final UsbFileSystemProvider provider;
+    private final Object lock = new Object();
+    private final Map<String, Lease> leases = new HashMap<>(); // guarded by lock
+
+    public UsbStorageReader(UsbFileSystemProvider provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * @return Entries of the directory, or null if the path is not a directory
+     */
+    public List<Entry> readdir(int vendorId, int productId, String path) throws Exception {
+        synchronized (lock) {
+            Lease lease = acquire(vendorId, productId);
+            try {
+                UsbFile dir = lease.handle.getFileSystem().getRootDirectory().search(path);
+                if (dir == null || !dir.isDirectory()) {
+                    return null;
+                }
+
+                UsbFile[] files = dir.listFiles();
+                List<Entry> result = new ArrayList<>(files.length);
+                for (UsbFile file : files) {
+                    result.add(new Entry(file.getName(), file.isDirectory()));
+                }
+                return result;
+            } finally {
+                release(lease);
+            }
+        }
+    }
+
+    /**
+     * @param chunkSize Bytes per device read; 0 or less uses the file system cluster size
+     * @return File contents, or null if the file does not exist
+     */
+    public byte[] readFile(int vendorId, int productId, String path, int chunkSize) throws Exception {
+        synchronized (lock) {
+            Lease lease = acquire(vendorId, productId);
+            try {
+                FileSystem fs = lease.handle.getFileSystem();
+                UsbFile usbFile = fs.getRootDirectory().search(path);
+                if (usbFile == null) {
+                    return null;
+                }
+
+                if (usbFile.isDirectory()) {
+                    throw new UsbStorageException("Path is a directory: " + path);
+                }
+
+                long fileLength = usbFile.getLength();
+                if (fileLength > MAX_FILE_SIZE) {
+                    throw new UsbStorageException("File too large: " + fileLength + " bytes (max " + MAX_FILE_SIZE + ")");
+                }
+
+                int step = chunkSize > 0 ? chunkSize : fs.getChunkSize();
+
+                // Read straight into the result buffer window by window, without an intermediate copy
+                ByteBuffer buffer = ByteBuffer.allocate((int) fileLength);
+                while (buffer.hasRemaining()) {
+                    int position = buffer.position();
+                    buffer.limit(Math.min(position + step, buffer.capacity()));
+                    usbFile.read(position, buffer);
+                    buffer.position(buffer.limit());
+                }
+                return buffer.array();
+            } finally {
+                release(lease);
+            }
+        }
+    }
+
+    /**
+     * Streaming variant: each chunk is handed to the sink as soon as it is read, reusing one buffer,
+     * so no size limit applies. The sink must consume the bytes before returning.
+     * The sink is called outside the device lock, so it may block (e.g. waiting for acknowledgements)
+     * without stalling other operations.
+     * @param chunkSize Bytes per chunk; 0 or less uses the file system cluster size
+     * @return false if the file does not exist
+     */
+    public boolean readFile(int vendorId, int productId, String path, int chunkSize, ChunkSink sink) throws Exception {
+        Lease lease;
+        UsbFile usbFile;
+        long total;
+        ByteBuffer buffer;
+        synchronized (lock) {
+            lease = acquire(vendorId, productId);
+            try {
+                FileSystem fs = lease.handle.getFileSystem();
+                usbFile = fs.getRootDirectory().search(path);
+                if (usbFile == null) {
+                    release(lease);
+                    return false;
+                }
+
+                if (usbFile.isDirectory()) {
+                    throw new UsbStorageException("Path is a directory: " + path);
+                }
+
+                total = usbFile.getLength();
+                int step = chunkSize > 0 ? chunkSize : fs.getChunkSize();
+                buffer = ByteBuffer.allocate((int) Math.min(step, total));
+            } catch (Exception e) {
+                release(lease);
+                throw e;
+            }
+        }
+
+        try {
+            long offset = 0;
+            while (offset < total) {
+                synchronized (lock) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), total - offset));
+                    usbFile.read(offset, buffer);
+                }
+                sink.accept(buffer.array(), buffer.limit(), offset, total);
+                offset += buffer.limit();
+            }
+            return true;
+        } finally {
+            synchronized (lock) {
+                release(lease);
+            }
+        }
+    }
+
+    /**
+     * Opens the device's file system, or shares the one already opened by a running operation.
+     * Call with the lock held.
+     */
+    private Lease acquire(int vendorId, int productId) throws Exception {
+        String key = vendorId + ":" + productId;
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            lease = new Lease(key, provider.open(vendorId, productId));
+            leases.put(key, lease);
+        }
+        lease.refs++;
+        return lease;
+    }
+
+    /**
+     * Closes the file system once its last user is done. Call with the lock held.
+     */
+    private void release(Lease lease) throws IOException {
+        if (--lease.refs == 0) {
+            leases.remove(lease.key);
+            lease.handle.close();
+        }
+    }
+
+    public interface ChunkSink {
+        /**
+         * @param data Shared buffer, valid only during the call
+         * @param length Bytes of data in this chunk
+         * @param offset Position of the chunk in the file
+         * @param total File size
+         */
+        void accept(byte[] data, int length, long offset, long total) throws Exception;
+    }
+
+    public static class Entry {
+        public final String name;
+        public final boolean isDirectory;
+
+        public Entry(String name, boolean isDirectory) {
+            this.name = name;
+            this.isDirectory = isDirectory;
+        }
+    }
+
+    private static class Lease {
+        final String key;
+        final UsbFileSystemHandle handle;
+        int refs;
+
+        Lease(String key, UsbFileSystemHandle handle) {
+            this.key = key;
+            this.handle = handle;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import me.jahnen.libaums.core.driver.ByteBlockDevice;
+import me.jahnen.libaums.core.fs.FileSystem;
+import me.jahnen.libaums.core.fs.FileSystemFactory;
+import me.jahnen.libaums.core.partition.PartitionTableEntry;
+
+/**
+ * Formats an in-memory FAT32 volume and mounts it through libaums.
+ */
+public class Fat32Image {
+
+    private static final int BYTES_PER_SECTOR = 512;
+    private static final int RESERVED_SECTORS = 32;
+    private static final int FAT_COUNT = 2;
+    private static final int ROOT_CLUSTER = 2;
+
+    private final int totalSectors;
+    private final MemoryBlockDeviceDriver driver;
+
+    private Fat32Image(int totalSectors, MemoryBlockDeviceDriver driver) {
+        this.totalSectors = totalSectors;
+        this.driver = driver;
+    }
+
+    public static Fat32Image format(int sizeInMb, int sectorsPerCluster) {
+        int totalSectors = sizeInMb * 1024 * 1024 / BYTES_PER_SECTOR;
+        int clusterCount = totalSectors / sectorsPerCluster;
+        int sectorsPerFat = ((clusterCount + 2) * 4 + BYTES_PER_SECTOR - 1) / BYTES_PER_SECTOR;
+
+        byte[] data = new byte[totalSectors * BYTES_PER_SECTOR];
+        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Boot sector
+        buf.put(0, (byte) 0xEB).put(1, (byte) 0x58).put(2, (byte) 0x90);
+        putAscii(buf, 3, "MSWIN4.1");
+        buf.putShort(11, (short) BYTES_PER_SECTOR);
+        buf.put(13, (byte) sectorsPerCluster);
+        buf.putShort(14, (short) RESERVED_SECTORS);
+        buf.put(16, (byte) FAT_COUNT);
+        buf.put(21, (byte) 0xF8);
+        buf.putShort(24, (short) 63);
+        buf.putShort(26, (short) 255);
+        buf.putInt(32, totalSectors);
+        buf.putInt(36, sectorsPerFat);
+        buf.putInt(44, ROOT_CLUSTER);
+        buf.putShort(48, (short) 1);
+        buf.putShort(50, (short) 6);
+        buf.put(64, (byte) 0x80);
+        buf.put(66, (byte) 0x29);
+        buf.putInt(67, 0x12345678);
+        putAscii(buf, 71, "NO NAME    ");
+        putAscii(buf, 82, "FAT32   ");
+        buf.put(510, (byte) 0x55).put(511, (byte) 0xAA);
+
+        // FS information sector
+        int fsInfo = BYTES_PER_SECTOR;
+        buf.putInt(fsInfo, 0x41615252);
+        buf.putInt(fsInfo + 484, 0x61417272);
+        buf.putInt(fsInfo + 488, clusterCount - 1);
+        buf.putInt(fsInfo + 492, ROOT_CLUSTER + 1);
+        buf.putInt(fsInfo + 508, 0xAA550000);
+
+        // Backup boot sector
+        System.arraycopy(data, 0, data, 6 * BYTES_PER_SECTOR, BYTES_PER_SECTOR);
+
+        // Media descriptor, reserved entry and end-of-chain for the root directory in every FAT
+        for (int i = 0; i < FAT_COUNT; i++) {
+            int fat = (RESERVED_SECTORS + i * sectorsPerFat) * BYTES_PER_SECTOR;
+            buf.putInt(fat, 0x0FFFFFF8);
+            buf.putInt(fat + 4, 0x0FFFFFFF);
+            buf.putInt(fat + ROOT_CLUSTER * 4, 0x0FFFFFFF);
+        }
+
+        return new Fat32Image(totalSectors, new MemoryBlockDeviceDriver(data, BYTES_PER_SECTOR));
+    }
+
+    public FileSystem mount() throws IOException {
+        PartitionTableEntry entry = new PartitionTableEntry(0x0c, 0, totalSectors);
+        return FileSystemFactory.INSTANCE.createFileSystem(entry, new ByteBlockDevice(driver, 0));
+    }
+
+    /**
+     * Provider that serves this image for any vendorId/productId.
+     */
+    public UsbFileSystemProvider provider() throws IOException {
+        FileSystem fs = mount();
+        return (vendorId, productId) -> new UsbFileSystemHandle() {
+            @Override
+            public FileSystem getFileSystem() {
+                return fs;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static void putAscii(ByteBuffer buf, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < bytes.length; i++) {
+            buf.put(offset + i, bytes[i]);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import java.nio.ByteBuffer;
+
+import me.jahnen.libaums.core.driver.BlockDeviceDriver;
+
+/**
+ * Block device backed by a byte array. Offsets are in blocks, as with the SCSI driver.
+ */
+public class MemoryBlockDeviceDriver implements BlockDeviceDriver {
+
+    private final byte[] data;
+    private final int blockSize;
+
+    public MemoryBlockDeviceDriver(byte[] data, int blockSize) {
+        this.data = data;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public void read(long deviceOffset, ByteBuffer buffer) {
+        buffer.put(data, (int) (deviceOffset * blockSize), buffer.remaining());
+    }
+
+    @Override
+    public void write(long deviceOffset, ByteBuffer buffer) {
+        buffer.get(data, (int) (deviceOffset * blockSize), buffer.remaining());
+    }
+
+    @Override
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public long getBlocks() {
+        return data.length / blockSize;
+    }
+}
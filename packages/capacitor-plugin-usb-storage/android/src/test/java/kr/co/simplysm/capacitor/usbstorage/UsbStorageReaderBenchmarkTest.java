@@ -0,0 +1,84 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import me.jahnen.libaums.core.fs.FileSystem;
+import me.jahnen.libaums.core.fs.UsbFile;
+
+/**
+ * Throughput of {@link UsbStorageReader} against an in-memory FAT32 image.
+ * Prints MB/s per chunk size and entries/s per directory size. Skipped by default; run with
+ * `gradlew testDebugUnitTest -Pbenchmark -i` to see the report.
+ */
+public class UsbStorageReaderBenchmarkTest {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 5;
+
+    @Before
+    public void requireBenchmarkProperty() {
+        Assume.assumeTrue("benchmark disabled (run with -Pbenchmark)", Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void readFileThroughput() throws Exception {
+        Fat32Image image = Fat32Image.format(64, 8);
+        FileSystem fs = image.mount();
+
+        int fileSize = 8 * 1024 * 1024;
+        byte[] content = new byte[fileSize];
+        new Random(1).nextBytes(content);
+        UsbStorageReaderTest.writeFile(fs.getRootDirectory(), "large.bin", content);
+
+        UsbStorageReader reader = new UsbStorageReader(image.provider());
+        for (int chunkSize : new int[]{512, 4 * 1024, 16 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024}) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                reader.readFile(1, 1, "large.bin", chunkSize);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                assertEquals(fileSize, reader.readFile(1, 1, "large.bin", chunkSize).length);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("readFile chunkSize=%7d: %8.1f MB/s%n", chunkSize, (double) fileSize * ROUNDS / (1024 * 1024) / seconds);
+        }
+    }
+
+    @Test
+    public void readdirThroughput() throws Exception {
+        Fat32Image image = Fat32Image.format(64, 8);
+        FileSystem fs = image.mount();
+
+        int[] dirSizes = {10, 100, 1000};
+        for (int dirSize : dirSizes) {
+            UsbFile dir = fs.getRootDirectory().createDirectory("dir" + dirSize);
+            for (int i = 0; i < dirSize; i++) {
+                dir.createFile("entry_" + i + ".txt").close();
+            }
+        }
+
+        UsbStorageReader reader = new UsbStorageReader(image.provider());
+        for (int dirSize : dirSizes) {
+            String path = "dir" + dirSize;
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                reader.readdir(1, 1, path);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                assertEquals(dirSize, reader.readdir(1, 1, path).size());
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("readdir entries=%5d: %10.0f entries/s%n", dirSize, dirSize * ROUNDS / seconds);
+        }
+    }
+}
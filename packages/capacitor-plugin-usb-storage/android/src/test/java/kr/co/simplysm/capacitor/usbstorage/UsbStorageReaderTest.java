@@ -0,0 +1,160 @@
+package kr.co.simplysm.capacitor.usbstorage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import me.jahnen.libaums.core.fs.FileSystem;
+import me.jahnen.libaums.core.fs.UsbFile;
+
+public class UsbStorageReaderTest {
+
+    private UsbStorageReader reader;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws Exception {
+        Fat32Image image = Fat32Image.format(16, 8);
+        FileSystem fs = image.mount();
+
+        content = new byte[300 * 1024 + 123];
+        new Random(1).nextBytes(content);
+
+        UsbFile dir = fs.getRootDirectory().createDirectory("data");
+        writeFile(dir, "sample.bin", content);
+        writeFile(dir, "empty.txt", new byte[0]);
+        dir.createDirectory("sub");
+
+        reader = new UsbStorageReader(image.provider());
+    }
+
+    @Test
+    public void readdirListsEntries() throws Exception {
+        List<UsbStorageReader.Entry> entries = reader.readdir(1, 1, "data");
+
+        Map<String, Boolean> byName = new HashMap<>();
+        for (UsbStorageReader.Entry entry : entries) {
+            byName.put(entry.name, entry.isDirectory);
+        }
+        assertEquals(3, byName.size());
+        assertEquals(false, byName.get("sample.bin"));
+        assertEquals(false, byName.get("empty.txt"));
+        assertEquals(true, byName.get("sub"));
+    }
+
+    @Test
+    public void readdirReturnsNullForMissingOrFilePath() throws Exception {
+        assertNull(reader.readdir(1, 1, "missing"));
+        assertNull(reader.readdir(1, 1, "data/sample.bin"));
+    }
+
+    @Test
+    public void readFileReturnsContentForAnyChunkSize() throws Exception {
+        for (int chunkSize : new int[]{0, 512, 4096, 7000, 64 * 1024, 1024 * 1024}) {
+            assertArrayEquals("chunkSize=" + chunkSize, content, reader.readFile(1, 1, "data/sample.bin", chunkSize));
+        }
+        assertEquals(0, reader.readFile(1, 1, "data/empty.txt", 0).length);
+    }
+
+    @Test
+    public void readFileReturnsNullForMissingFile() throws Exception {
+        assertNull(reader.readFile(1, 1, "data/missing.bin", 0));
+    }
+
+    @Test
+    public void readFileRejectsDirectory() {
+        IOException e = assertThrows(IOException.class, () -> reader.readFile(1, 1, "data/sub", 0));
+        assertTrue(e.getMessage().startsWith("Path is a directory"));
+    }
+
+    @Test
+    public void streamingReadFileDeliversChunksInOrder() throws Exception {
+        for (int chunkSize : new int[]{0, 512, 7000, 64 * 1024, 1024 * 1024}) {
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            assertTrue(reader.readFile(1, 1, "data/sample.bin", chunkSize, (data, length, offset, total) -> {
+                assertEquals(received.size(), offset);
+                assertEquals(content.length, total);
+                received.write(data, 0, length);
+            }));
+            assertArrayEquals("chunkSize=" + chunkSize, content, received.toByteArray());
+        }
+    }
+
+    @Test
+    public void streamingReadFileHandlesEmptyAndMissingFiles() throws Exception {
+        int[] calls = {0};
+        assertTrue(reader.readFile(1, 1, "data/empty.txt", 0, (data, length, offset, total) -> calls[0]++));
+        assertEquals(0, calls[0]);
+        assertFalse(reader.readFile(1, 1, "data/missing.bin", 0, (data, length, offset, total) -> calls[0]++));
+        assertEquals(0, calls[0]);
+    }
+
+    @Test
+    public void streamingReadFileStopsWhenSinkThrows() {
+        int[] calls = {0};
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> reader.readFile(1, 1, "data/sample.bin", 4096, (data, length, offset, total) -> {
+                if (++calls[0] == 3) {
+                    throw new IllegalStateException("stop");
+                }
+            }));
+        assertEquals("stop", e.getMessage());
+        assertEquals(3, calls[0]);
+    }
+
+    @Test(timeout = 10000)
+    public void readdirProceedsWhileStreamWaitsForAcks() throws Exception {
+        CountDownLatch firstChunk = new CountDownLatch(1);
+        CountDownLatch ack = new CountDownLatch(1);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The sink stalls after the first chunk, like a job whose window is full
+            Future<Boolean> stream = executor.submit(() -> reader.readFile(1, 1, "data/sample.bin", 4096,
+                (data, length, offset, total) -> {
+                    received.write(data, 0, length);
+                    if (offset == 0) {
+                        firstChunk.countDown();
+                        assertTrue(ack.await(5, TimeUnit.SECONDS));
+                    }
+                }));
+            assertTrue(firstChunk.await(5, TimeUnit.SECONDS));
+
+            assertEquals(3, reader.readdir(1, 1, "data").size());
+            assertEquals(0, reader.readFile(1, 1, "data/empty.txt", 0).length);
+
+            ack.countDown();
+            assertTrue(stream.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(content, received.toByteArray());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static void writeFile(UsbFile dir, String name, byte[] data) throws IOException {
+        UsbFile file = dir.createFile(name);
+        file.setLength(data.length);
+        file.write(0, ByteBuffer.wrap(data));
+        file.close();
+    }
+}
@@ -1,8 +1,12 @@
 import { registerPlugin } from "@capacitor/core";
 import type {
+  UsbDeviceEvent,
   UsbDeviceFilter,
   UsbDeviceInfo,
   UsbFileInfo,
+  UsbJobEvent,
+  UsbReadStreamOptions,
+  UsbStorageJob,
   UsbStoragePlugin,
 } from "./UsbStoragePlugin";
 import type { Bytes } from "@simplysm/core-common";
@@ -30,6 +34,34 @@ export abstract class UsbStorage {
     return result.devices;
   }
 
+  /**
+   * Watch USB device attach/detach events
+   * @returns Unwatch function
+   *
+   * @example
+   * ```ts
+   * const unwatch = await UsbStorage.watchDevices((event) => {
+   *   console.log(event.type, event.device);
+   * });
+   *
+   * // Stop watching
+   * await unwatch();
+   * ```
+   */
+  static async watchDevices(
+    callback: (event: UsbDeviceEvent) => void,
+  ): Promise<() => Promise<void>> {
+    const { id } = await usbStoragePlugin.watchDevices((event) => {
+      // Filter out the initial resolve that only contains { id }
+      if ((event as Partial<UsbDeviceEvent>).type != null) {
+        callback(event);
+      }
+    });
+    return async () => {
+      await usbStoragePlugin.unwatchDevices({ id });
+    };
+  }
+
   /**
    * Request USB device access permission
    * @param filter vendorId and productId of the USB device to request permission for
@@ -74,4 +106,94 @@ export abstract class UsbStorage {
     }
     return bytes.fromBase64(result.data);
   }
+
+  /**
+   * Read a file from USB storage device as a cancellable stream of chunks
+   * - No size limit; native reading pauses while `window` chunks are still being handled,
+   *   and the next chunk is requested only after `onChunk` (and its returned promise) completes
+   * @param filter vendorId and productId of the target USB device
+   * @param filePath File path to read
+   * @param onChunk Called for each chunk in order
+   * @returns Job handle; `done` rejects if the file is missing or reading fails
+   *
+   * @example
+   * ```ts
+   * const job = await UsbStorage.readFileStream(filter, "/big.csv", async (chunk, progress) => {
+   *   await writer.write(chunk);
+   *   console.log(`${progress.offset + chunk.length} / ${progress.total}`);
+   * });
+   *
+   * // On navigation
+   * await job.cancel();
+   * ```
+   */
+  static async readFileStream(
+    filter: UsbDeviceFilter,
+    filePath: string,
+    onChunk: (chunk: Bytes, progress: { offset: number; total: number }) => void | Promise<void>,
+    options?: UsbReadStreamOptions,
+  ): Promise<UsbStorageJob> {
+    return UsbStorage._startJob(
+      (callback) =>
+        usbStoragePlugin.readFileStream({ ...filter, path: filePath, ...options }, callback),
+      async (event) => {
+        if (event.type === "chunk") {
+          await onChunk(bytes.fromBase64(event.data ?? ""), {
+            offset: event.offset ?? 0,
+            total: event.total ?? -1,
+          });
+          await usbStoragePlugin.ackJob({ id: event.id });
+        }
+      },
+    );
+  }
+
+  private static async _startJob(
+    start: (
+      callback: (event: UsbJobEvent | undefined, err?: unknown) => void,
+    ) => Promise<{ id: string }>,
+    onEvent: (event: UsbJobEvent) => void | Promise<void>,
+  ): Promise<UsbStorageJob> {
+    let settle: {
+      resolve: (status: "completed" | "cancelled") => void;
+      reject: (err: unknown) => void;
+    } = { resolve: () => {}, reject: () => {} };
+    const done = new Promise<"completed" | "cancelled">((resolve, reject) => {
+      settle = { resolve, reject };
+    });
+
+    // Events are handled one at a time, so done settles only after every event was handled
+    let queue = Promise.resolve();
+    let failed = false;
+    const { id } = await start((event, err) => {
+      queue = queue.then(async () => {
+        if (failed) return;
+        if (err != null || event == null) {
+          failed = true;
+          settle.reject(err);
+        } else if (event.type === "done") {
+          settle.resolve("completed");
+        } else if (event.type === "cancelled") {
+          settle.resolve("cancelled");
+        } else if (event.type != null) {
+          try {
+            await onEvent(event);
+          } catch (eventErr) {
+            failed = true;
+            settle.reject(eventErr);
+            await usbStoragePlugin.cancelJob({ id: event.id });
+          }
+        }
+        // The initial resolve only contains { id }
+      });
+    });
+
+    return {
+      id,
+      done,
+      cancel: async () => {
+        await usbStoragePlugin.cancelJob({ id });
+      },
+    };
+  }
 }
@@ -16,10 +16,48 @@ export interface UsbFileInfo {
   isDirectory: boolean;
 }
 
+export interface UsbDeviceEvent {
+  type: "attached" | "detached";
+  device: UsbDeviceInfo;
+}
+
+export interface UsbReadStreamOptions {
+  /** Bytes per chunk (default 512KB) */
+  chunkSize?: number;
+  /** Chunks that may be unacknowledged before native reading pauses (default 4) */
+  window?: number;
+}
+
+export interface UsbJobEvent {
+  id: string;
+  type?: "chunk" | "done" | "cancelled";
+  /** chunk: Base64 data */
+  data?: string;
+  /** chunk: position of the chunk in the file */
+  offset?: number;
+  /** chunk: file size, or -1 if unknown */
+  total?: number;
+}
+
+export interface UsbStorageJob {
+  id: string;
+  /** Settles when the job ends: "completed" or "cancelled", or rejects with the failure */
+  done: Promise<"completed" | "cancelled">;
+  cancel(): Promise<void>;
+}
+
 export interface UsbStoragePlugin {
   getDevices(): Promise<{ devices: UsbDeviceInfo[] }>;
+  watchDevices(callback: (event: UsbDeviceEvent) => void): Promise<{ id: string }>;
+  unwatchDevices(options: { id: string }): Promise<void>;
   requestPermissions(options: UsbDeviceFilter): Promise<{ granted: boolean }>;
   checkPermissions(options: UsbDeviceFilter): Promise<{ granted: boolean }>;
   readdir(options: UsbDeviceFilter & { path: string }): Promise<{ files: UsbFileInfo[] }>;
   readFile(options: UsbDeviceFilter & { path: string }): Promise<{ data: string | null }>;
+  readFileStream(
+    options: UsbDeviceFilter & { path: string } & UsbReadStreamOptions,
+    callback: (event: UsbJobEvent | undefined, err?: unknown) => void,
+  ): Promise<{ id: string }>;
+  cancelJob(options: { id: string }): Promise<void>;
+  ackJob(options: { id: string }): Promise<void>;
 }
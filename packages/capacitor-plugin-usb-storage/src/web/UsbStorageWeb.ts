@@ -1,8 +1,11 @@
 import { WebPlugin } from "@capacitor/core";
 import type {
+  UsbDeviceEvent,
   UsbDeviceFilter,
   UsbDeviceInfo,
   UsbFileInfo,
+  UsbJobEvent,
+  UsbReadStreamOptions,
   UsbStoragePlugin,
 } from "../UsbStoragePlugin";
 import { VirtualUsbStorage } from "./VirtualUsbStorage";
@@ -10,6 +13,11 @@ import { bytes } from "@simplysm/core-common";
 
 export class UsbStorageWeb extends WebPlugin implements UsbStoragePlugin {
   private readonly _storage = new VirtualUsbStorage();
+  private readonly _watchers = new Map<string, (event: UsbDeviceEvent) => void>();
+  private readonly _jobs = new Map<
+    string,
+    { cancelled: boolean; unacknowledged: number; wake?: () => void }
+  >();
 
   async getDevices(): Promise<{ devices: UsbDeviceInfo[] }> {
     const devices = await this._storage.getDevices();
@@ -24,6 +32,17 @@ export class UsbStorageWeb extends WebPlugin implements UsbStoragePlugin {
     };
   }
 
+  async watchDevices(callback: (event: UsbDeviceEvent) => void): Promise<{ id: string }> {
+    const id = crypto.randomUUID();
+    this._watchers.set(id, callback);
+    return Promise.resolve({ id });
+  }
+
+  async unwatchDevices(options: { id: string }): Promise<void> {
+    this._watchers.delete(options.id);
+    return Promise.resolve();
+  }
+
   async requestPermissions(_options: UsbDeviceFilter): Promise<{ granted: boolean }> {
     return Promise.resolve({ granted: true });
   }
@@ -61,6 +80,70 @@ export class UsbStorageWeb extends WebPlugin implements UsbStoragePlugin {
     return { data: entry.dataBase64 };
   }
 
+  async readFileStream(
+    options: UsbDeviceFilter & { path: string } & UsbReadStreamOptions,
+    callback: (event: UsbJobEvent | undefined, err?: unknown) => void,
+  ): Promise<{ id: string }> {
+    const id = crypto.randomUUID();
+    const job: { cancelled: boolean; unacknowledged: number; wake?: () => void } = {
+      cancelled: false,
+      unacknowledged: 0,
+    };
+    this._jobs.set(id, job);
+
+    void (async () => {
+      try {
+        const { data } = await this.readFile(options);
+        if (data == null) {
+          throw new Error("File not found: " + options.path);
+        }
+        const content = bytes.fromBase64(data);
+        const chunkSize = Math.max(1, options.chunkSize ?? 512 * 1024);
+        const window = Math.max(1, options.window ?? 4);
+
+        for (let offset = 0; offset < content.length && !job.cancelled; offset += chunkSize) {
+          while (job.unacknowledged >= window && !job.cancelled) {
+            await new Promise<void>((resolve) => (job.wake = resolve));
+          }
+          if (job.cancelled) break;
+          job.unacknowledged++;
+          callback({
+            id,
+            type: "chunk",
+            data: bytes.toBase64(content.subarray(offset, offset + chunkSize)),
+            offset,
+            total: content.length,
+          });
+        }
+        callback({ id, type: job.cancelled ? "cancelled" : "done" });
+      } catch (err) {
+        callback(undefined, err);
+      } finally {
+        this._jobs.delete(id);
+      }
+    })();
+
+    return Promise.resolve({ id });
+  }
+
+  async cancelJob(options: { id: string }): Promise<void> {
+    const job = this._jobs.get(options.id);
+    if (job != null) {
+      job.cancelled = true;
+      job.wake?.();
+    }
+    return Promise.resolve();
+  }
+
+  async ackJob(options: { id: string }): Promise<void> {
+    const job = this._jobs.get(options.id);
+    if (job != null) {
+      job.unacknowledged = Math.max(0, job.unacknowledged - 1);
+      job.wake?.();
+    }
+    return Promise.resolve();
+  }
+
   /**
    * Add a virtual USB device. (For testing/development)
    */
@@ -72,6 +155,9 @@ export class UsbStorageWeb extends WebPlugin implements UsbStoragePlugin {
     productName: string;
   }): Promise<void> {
     await this._storage.addDevice(device);
+    for (const watcher of this._watchers.values()) {
+      watcher({ type: "attached", device });
+    }
   }
 
   /**
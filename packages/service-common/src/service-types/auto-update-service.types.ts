@@ -7,12 +7,21 @@ export interface AutoUpdateService {
   /**
    * Retrieve the latest version info for the specified platform.
    * @param platform Target platform (e.g., "win32", "darwin", "linux")
+   * @param fromVersion Currently installed version; fills `patch` when a patch from it exists
    * @returns Latest version info, or undefined if no version exists
    */
-  getLastVersion(platform: string): Promise<
+  getLastVersion(
+    platform: string,
+    fromVersion?: string,
+  ): Promise<
     | {
         version: string;
         downloadPath: string;
+        /** BSDIFF40 patch from fromVersion, and the SHA-256 (hex) of the full file it rebuilds */
+        patch?: {
+          downloadPath: string;
+          sha256: string;
+        };
       }
     | undefined
   >;
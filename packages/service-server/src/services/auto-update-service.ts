@@ -1,13 +1,22 @@
+import crypto from "crypto";
+import fs from "fs";
 import path from "path";
 import semver from "semver";
 import { fsx, pathx } from "@simplysm/core-node";
 import { defineService, type ServiceMethods } from "../core/define-service";
 
 export const AutoUpdateService = defineService("AutoUpdate", (ctx) => ({
-  async getLastVersion(platform: string): Promise<
+  async getLastVersion(
+    platform: string,
+    fromVersion?: string,
+  ): Promise<
     | {
         version: string;
         downloadPath: string;
+        patch?: {
+          downloadPath: string;
+          sha256: string;
+        };
       }
     | undefined
   > {
@@ -44,11 +53,46 @@ export const AutoUpdateService = defineService("AutoUpdate", (ctx) => ({
     const downloadPath =
       "/" + pathx.posix(ctx.clientName ?? "", platform, "updates", versionItem.fileName);
 
+    // Binary patch from the caller's version: updates/<fromVersion>-<version>.patch
+    let patch: { downloadPath: string; sha256: string } | undefined;
+    if (fromVersion != null && /^[0-9.]*$/.test(fromVersion) && fromVersion !== version) {
+      const patchFileName = `${fromVersion}-${version}.patch`;
+      if (updates.includes(patchFileName)) {
+        patch = {
+          downloadPath: "/" + pathx.posix(ctx.clientName ?? "", platform, "updates", patchFileName),
+          sha256: await hashFile(
+            path.resolve(clientPath, platform, "updates", versionItem.fileName),
+          ),
+        };
+      }
+    }
+
     return {
       version: version.toString(),
       downloadPath,
+      ...(patch != null ? { patch } : {}),
     };
   },
 }));
 
+// SHA-256 of each update file, reused while its size and mtime are unchanged,
+// so polling clients don't re-read the whole APK on every check
+const hashCache = new Map<string, { size: number; mtimeMs: number; sha256: string }>();
+
+async function hashFile(filePath: string): Promise<string> {
+  const stat = await fs.promises.stat(filePath);
+  const cached = hashCache.get(filePath);
+  if (cached != null && cached.size === stat.size && cached.mtimeMs === stat.mtimeMs) {
+    return cached.sha256;
+  }
+
+  const hash = crypto.createHash("sha256");
+  for await (const chunk of fs.createReadStream(filePath)) {
+    hash.update(chunk as Buffer);
+  }
+  const sha256 = hash.digest("hex");
+  hashCache.set(filePath, { size: stat.size, mtimeMs: stat.mtimeMs, sha256 });
+  return sha256;
+}
+
 export type AutoUpdateServiceType = ServiceMethods<typeof AutoUpdateService>;